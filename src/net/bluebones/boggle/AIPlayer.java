@@ -202,6 +202,24 @@ public class AIPlayer extends Player {
     /** Returns null as AI does not use a local server. */
     public IServer getLocalServer() { return null; }
     
+    /**
+     * Sets the remote server, sending it heartbeats for as long as it stays 
+     * set so that the host keeps this <code>AIPlayer</code> in the game.
+     *
+     * @param   server  <code>IServer</code> to set as remote server or null to 
+     *                  unset.
+     */
+    public void setRemoteServer(IServer server) {
+        IServer previous = getRemoteServer();
+        super.setRemoteServer(server);
+        if (server != null && server != previous) {
+            Thread thread = new Thread(new Heartbeat(this, server), 
+                "AI heartbeat");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+    
     /** Does nothing (interface requirement). */
     public void results(Round round) {}
     
@@ -0,0 +1,333 @@
+/*
+ * BatchSolver
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless tool that solves a stream of boards and writes a summary line for 
+ * each, for studying board quality offline.  Boards are either rolled with 
+ * the standard dice or read from a file with one board per line, the letters 
+ * given row by row (Q standing for the Qu die).
+ * <br /><br />
+ * <code>$ java net.bluebones.boggle.BatchSolver (-generate count [-size 4|5]
+ * [-seed n] | -input file) -output file [-dictionary file] [-threads n]</code>
+ * <br /><br />
+ * Each output line holds the board, the number of words on it, the maximum 
+ * score and the longest word, separated by tabs.  Boards are solved on a 
+ * fixed pool of threads fed through a bounded queue so memory use stays flat 
+ * however many boards go through.  Lines are written as boards finish so are 
+ * not necessarily in input order.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     BoardSolver
+ */
+public class BatchSolver {
+
+    /** Most dice a board may have, the most <code>BoardSolver</code> can 
+        search. */
+    public static final int MAXIMUM_DICE = Long.SIZE;
+    
+    // Boards waiting to be solved per thread.
+    private static final int QUEUE_PER_THREAD = 64;
+
+    private BoardSolver solver;
+    private Writer out;
+    private ExecutorService executor;
+    private long solved = 0;
+    // First failure to write, after which no more boards are taken.
+    private IOException failure = null;
+
+    /**
+     * Initializes a new <code>BatchSolver</code>.
+     *
+     * @param   dictionary  <code>Dictionary</code> to solve with.
+     * @param   out         <code>Writer</code> to write results to.
+     * @param   threads     <code>int</code> number of boards to solve at once.
+     */
+    public BatchSolver(Dictionary dictionary, Writer out, int threads) {
+        this.solver = new BoardSolver(dictionary);
+        this.out = out;
+        // When the queue is full the submitting thread solves the board 
+        // itself, which holds back reading or generating more.
+        // Daemon threads, so that giving up on a bad board or a failed write 
+        // does not leave the JVM waiting on boards nobody will see.
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, 
+            TimeUnit.MILLISECONDS, 
+            new ArrayBlockingQueue<Runnable>(threads * QUEUE_PER_THREAD),
+            new ThreadFactory() {
+                private int count = 0;
+                
+                public synchronized Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Batch solver " 
+                        + (++this.count));
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Queues a board to be solved.
+     *
+     * @param   letters     <code>char[][]</code> board.
+     * @throws  IOException If the results of an earlier board could not be 
+     *                      written.
+     * @throws  IllegalArgumentException    If the board has more than 
+     *                                      <code>MAXIMUM_DICE</code> dice.
+     */
+    public void add(final char[][] letters) throws IOException {
+        checkFailure();
+        // Checked here as the solver would only fail on a pool thread.
+        int dice = 0;
+        for (int x = 0; x < letters.length; x++) {
+            dice += letters[x].length;
+        }
+        if (dice > MAXIMUM_DICE) {
+            throw new IllegalArgumentException("Cannot solve a board of " 
+                + dice + " dice.");
+        }
+        this.executor.execute(new Runnable() {
+            public void run() {
+                if (! failed()) {
+                    BoardSolution solution = solver.solve(letters);
+                    write(letters, solution);
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits for every queued board to be solved and flushes the output.
+     *
+     * @return                          <code>long</code> number of boards 
+     *                                  solved.
+     * @throws  IOException             If the output cannot be written, 
+     *                                  now or for any earlier board.
+     * @throws  InterruptedException    If interrupted while waiting.
+     */
+    public long finish() throws IOException, InterruptedException {
+        this.executor.shutdown();
+        while (! this.executor.awaitTermination(1, TimeUnit.SECONDS)) {
+            Boggle.debug("Solved " + this.solved + " boards so far.");
+        }
+        synchronized (this) {
+            checkFailure();
+            this.out.flush();
+            return this.solved;
+        }
+    }
+    
+    private synchronized boolean failed() {
+        return (this.failure != null);
+    }
+    
+    private synchronized void checkFailure() throws IOException {
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    private synchronized void write(char[][] letters, 
+            BoardSolution solution) {
+        if (this.failure != null) {
+            return;
+        }
+        SolvedWord longest = solution.longestWord();
+        StringBuilder sb = new StringBuilder();
+        for (int x = 0; x < letters.length; x++) {
+            sb.append(letters[x]);
+        }
+        sb.append('\t').append(solution.size());
+        sb.append('\t').append(solution.maximumScore());
+        sb.append('\t').append(longest == null ? "" : longest.word());
+        sb.append('\n');
+        try {
+            this.out.write(sb.toString());
+        } catch (IOException e) {
+            // Carrying on would only produce an incomplete file, so keep the 
+            // failure for add and finish to report.
+            this.failure = e;
+            return;
+        }
+        this.solved++;
+    }
+
+    /**
+     * Turns a line of letters given row by row into a square board.
+     *
+     * @param   line    <code>String</code> of letters.
+     * @return          <code>char[][]</code> board.
+     * @throws  IllegalArgumentException    If the number of letters is not 
+     *                                      square or more than 
+     *                                      <code>MAXIMUM_DICE</code>, or 
+     *                                      there is anything but letters.
+     */
+    public static char[][] parseBoard(String line) {
+        String s = line.trim().toUpperCase();
+        int side = (int) Math.round(Math.sqrt(s.length()));
+        if (side == 0 || side * side != s.length()) {
+            throw new IllegalArgumentException("Not a square board: " + line);
+        }
+        if (s.length() > MAXIMUM_DICE) {
+            throw new IllegalArgumentException("Board of " + s.length() 
+                + " dice is too big, the most is " + MAXIMUM_DICE + ": " 
+                + line);
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) < 'A' || s.charAt(i) > 'Z') {
+                throw new IllegalArgumentException("Not a letter '" 
+                    + s.charAt(i) + "': " + line);
+            }
+        }
+        char[][] letters = new char[side][side];
+        for (int x = 0; x < side; x++) {
+            s.getChars(x * side, (x + 1) * side, letters[x], 0);
+        }
+        return letters;
+    }
+
+    /**
+     * Solves boards as described in the class documentation.
+     *
+     * @param   args                    Commandline arguments.
+     * @throws  IOException             If there is any problem reading or 
+     *                                  writing.
+     * @throws  InterruptedException    If interrupted while waiting for the 
+     *                                  last boards.
+     */
+    public static void main(String[] args) throws IOException, 
+            InterruptedException {
+        long generate = -1;
+        int size = 4;
+        long seed = System.currentTimeMillis();
+        String input = null;
+        String output = null;
+        String dictionaryFile = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("-generate")) {
+                    generate = Long.parseLong(args[++i]);
+                } else if (args[i].equals("-size")) {
+                    size = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("-seed")) {
+                    seed = Long.parseLong(args[++i]);
+                } else if (args[i].equals("-input")) {
+                    input = args[++i];
+                } else if (args[i].equals("-output")) {
+                    output = args[++i];
+                } else if (args[i].equals("-dictionary")) {
+                    dictionaryFile = args[++i];
+                } else if (args[i].equals("-threads")) {
+                    threads = Integer.parseInt(args[++i]);
+                } else {
+                    usage();
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            usage();
+        } catch (NumberFormatException e) {
+            usage();
+        }
+        if (output == null || (generate < 0) == (input == null) 
+                || (size != 4 && size != 5) || threads < 1) {
+            usage();
+        }
+        
+        Dictionary dictionary;
+        if (dictionaryFile == null) {
+            dictionary = Boggle.readDictionary();
+        } else if (dictionaryFile.endsWith(".dawg")) {
+            dictionary = Dictionaries.mapDawg(new File(dictionaryFile));
+        } else {
+            dictionary = Dictionaries.readWords(new File(dictionaryFile));
+        }
+        
+        long start = System.currentTimeMillis();
+        Writer out = new BufferedWriter(new OutputStreamWriter(
+            new FileOutputStream(output), "US-ASCII"));
+        long solved;
+        try {
+            BatchSolver batch = new BatchSolver(dictionary, out, threads);
+            if (input == null) {
+                Die[] dice = (size == 4 ? Die.dice16 : Die.dice25);
+                Random random = new Random(seed);
+                for (long i = 0; i < generate; i++) {
+                    batch.add(Die.rollLetters(dice, random));
+                }
+            } else {
+                BufferedReader in = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(input), "US-ASCII"));
+                try {
+                    String line;
+                    int lineNumber = 0;
+                    while ((line = in.readLine()) != null) {
+                        lineNumber++;
+                        if (line.trim().length() > 0) {
+                            char[][] letters;
+                            try {
+                                letters = parseBoard(line);
+                            } catch (IllegalArgumentException e) {
+                                throw new IOException(input + " line " 
+                                    + lineNumber + ": " + e.getMessage());
+                            }
+                            batch.add(letters);
+                        }
+                    }
+                } finally {
+                    in.close();
+                }
+            }
+            solved = batch.finish();
+        } finally {
+            out.close();
+        }
+        System.out.println("Solved " + solved + " boards in " 
+            + (System.currentTimeMillis() - start) + "ms.");
+    }
+
+    private static void usage() {
+        System.err.println("Usage: java " + BatchSolver.class.getName()
+            + " (-generate count [-size 4|5] [-seed n] | -input file)"
+            + " -output file [-dictionary file] [-threads n]");
+        System.exit(1);
+    }
+}
@@ -23,7 +23,7 @@
 
 package net.bluebones.boggle;
 
-import java.util.Locale;
+import java.util.Arrays;
 
 /**
  * Utility class that allows checking that words can be made from a given board
@@ -34,7 +34,12 @@ import java.util.Locale;
  */
 public class BoardChecker {
 
-    private char[][] letters;
+    private char[] dice;
+    private BoardGeometry geometry;
+    // The distinct letters on the board in order, and for each the cells 
+    // that show it.
+    private char[] letters;
+    private int[][] cellsByLetter;
     // So much debug code in here that you don't want it even in debug mode 
     // usually so gave it its own switch.
     private static final boolean DEBUG = false;
@@ -43,89 +48,139 @@ public class BoardChecker {
      * Initialises a BoardChecker with the specified letters.
      *
      * @param   letters Letters to initialise the board with.
+     * @throws  IllegalArgumentException    If the board has more than 64 
+     *                                      dice.
      */
     public BoardChecker(char[][] letters) {
         //TODO can use this code as the basis of an AI.
-        this.letters = letters;
+        this.geometry = BoardGeometry.forBoard(letters);
+        if (this.geometry.cells() > Long.SIZE) {
+            throw new IllegalArgumentException("Cannot check a board of "
+                + this.geometry.cells() + " dice.");
+        }
+        this.dice = this.geometry.flatten(letters);
+        indexLetters();
         Boggle.debugBoard(letters);
     }
+
+    private void indexLetters() {
+        char[] sorted = this.dice.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        this.letters = new char[distinct];
+        System.arraycopy(sorted, 0, this.letters, 0, distinct);
+        int[] counts = new int[distinct];
+        for (int cell = 0; cell < this.dice.length; cell++) {
+            counts[indexOf(this.dice[cell])]++;
+        }
+        this.cellsByLetter = new int[distinct][];
+        for (int i = 0; i < distinct; i++) {
+            this.cellsByLetter[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int cell = 0; cell < this.dice.length; cell++) {
+            int i = indexOf(this.dice[cell]);
+            this.cellsByLetter[i][counts[i]++] = cell;
+        }
+    }
     
     /**
-     * Checks whether the specified word can be made from this board.
+     * Checks whether the specified word can be made from this board.  Safe 
+     * to call from several threads at once.
      *
-     * @param   wordToCheck Word to look for on the board.
+     * @param   wordToCheck Word to look for on the board, in any case.
      * @return              Whether this word is on the board 
      *                      (<code>true</code>) or not (<code>false</code>).
      */
-    public boolean checkWord(String wordToCheck) {
-        // Q is a special case and actually represents the Qu face.
-        char[] word = wordToCheck.toUpperCase(Locale.UK).replaceAll("QU", 
-            "Q").toCharArray();
-        //TODO create a coordinate class to use instead of int[] for boardPos?
-        for (int x = 0; x < Boggle.sideLength(); x++) {
-            for (int y = 0; y < Boggle.sideLength(); y++) {
-                boolean[][] used
-                    = new boolean[this.letters.length][this.letters[0].length];
-                if (checkFrom(word, new int[] { x, y }, 0, 
-                        Boggle.copy(used))) {
-                    //Boggle.debug(wordToCheck + " is on the board.");
-                    return true;
-                } 
-            }
+    public boolean checkWord(CharSequence wordToCheck) {
+        char[] word = WordNormalizer.scratch(wordToCheck.length());
+        if (checkWord(word, WordNormalizer.toDice(wordToCheck, word))) {
+            return true;
+        }
+        if (Boggle.DEBUG) {
+            Boggle.debug(wordToCheck + " is not on the board.");
         }
-        Boggle.debug(wordToCheck + " is not on the board.");
-        BoardChecker.debug("Fell through (orig)");
         return false;
     }
 
-    //TODO this is confusing.  Refactor the whole thing.
-    private boolean checkFrom(char[] word, int[] boardPos, int wordPos, 
-            boolean[][] used) {
-        String spacer = "";
-        for (int i = 0; i < wordPos; i++) {
-            spacer += "    ";
-        }
-        BoardChecker.debug(spacer + "Entering check from with wordPos = " 
-            + wordPos + " and boardPos = " + boardPos[0] + ", " + boardPos[1]);
-        if (used[boardPos[0]][boardPos[1]]) {
-            BoardChecker.debug(spacer + "Have used this letter before (" 
-                + this.letters[boardPos[0]][boardPos[1]] + ")");
+    /**
+     * Checks whether the word made up of the first <code>length</code> chars 
+     * of <code>word</code> can be made from this board.  The word must already 
+     * be in dice form (see <code>WordNormalizer.toDice</code>).
+     *
+     * @param   word    <code>char[]</code> holding the word to look for.
+     * @param   length  <code>int</code> length of the word.
+     * @return          Whether this word is on the board 
+     *                  (<code>true</code>) or not (<code>false</code>).
+     */
+    public boolean checkWord(char[] word, int length) {
+        if (length == 0 || ! enoughLetters(word, length)) {
             return false;
         }
-        BoardChecker.debug(spacer + "wordPos is " + wordPos + " (" 
-            + word[wordPos] + ") and word.length is " + word.length 
-            + " and boardPos is " + boardPos[0] + ", " + boardPos[1] + " (" 
-            + this.letters[boardPos[0]][boardPos[1]] + ")");
-        if (this.letters[boardPos[0]][boardPos[1]] == word[wordPos]) {
-            used[boardPos[0]][boardPos[1]] = true;
-            BoardChecker.debug(spacer + "OK, " 
-                + this.letters[boardPos[0]][boardPos[1]] + " == " 
-                + word[wordPos]);
-            if (wordPos >= word.length - 1) {
+        int[] starts = this.cellsByLetter[indexOf(word[0])];
+        for (int i = 0; i < starts.length; i++) {
+            if (checkFrom(word, length, starts[i], 0, 0L)) {
                 return true;
+            } 
+        }
+        return false;
+    }
+
+    // Whether the board has at least as many of each letter as the word 
+    // needs, which rules out most words before any searching.
+    private boolean enoughLetters(char[] word, int length) {
+        for (int i = 0; i < length; i++) {
+            int letter = indexOf(word[i]);
+            if (letter < 0) {
+                return false;
             }
-            for (int xAdd = -1; xAdd <= 1; xAdd++) {
-                for (int yAdd = -1; yAdd <= 1; yAdd++) {
-                    int x = boardPos[0] + xAdd;
-                    int y = boardPos[1] + yAdd;
-                    BoardChecker.debug(spacer + "Checking boardPos " 
-                        + boardPos[0] + ", " + boardPos[1] + " (" 
-                        + this.letters[boardPos[0]][boardPos[1]] + ") for " 
-                        + word[wordPos + 1]);
-                    if ((inBounds(x, y)) 
-                            && (checkFrom(word, new int[] { x, y }, 
-                            (wordPos + 1), Boggle.copy(used)))) {
-                        return true;
-                    }
+            int needed = 0;
+            for (int j = 0; j < length; j++) {
+                if (word[j] == word[i]) {
+                    needed++;
                 }
             }
+            if (needed > this.cellsByLetter[letter].length) {
+                return false;
+            }
         }
-        return false;
+        return true;
     }
-    
-    private boolean inBounds(int x, int y) {
-        return (x >= 0 && x < Boggle.sideLength() 
-                && y >= 0 && y < Boggle.sideLength());
+
+    private int indexOf(char c) {
+        return Arrays.binarySearch(this.letters, c);
+    }
+
+    // Whether word[wordPos..length) can be traced starting at cell without 
+    // revisiting any cell whose bit is set in used.  used is passed by value 
+    // so backtracking needs no undo and nothing is allocated.
+    private boolean checkFrom(char[] word, int length, int cell, int wordPos, 
+            long used) {
+        if (this.dice[cell] != word[wordPos]) {
+            return false;
+        }
+        if (DEBUG) {
+            BoardChecker.debug("Matched " + word[wordPos] + " at position " 
+                + wordPos + " on cell " + cell);
+        }
+        if (wordPos == length - 1) {
+            return true;
+        }
+        used |= 1L << cell;
+        int[] neighbours = this.geometry.neighbours(cell);
+        for (int i = 0; i < neighbours.length; i++) {
+            int next = neighbours[i];
+            if ((used & (1L << next)) == 0 
+                    && checkFrom(word, length, next, wordPos + 1, used)) {
+                return true;
+            }
+        }
+        return false;
     }
     
     /**
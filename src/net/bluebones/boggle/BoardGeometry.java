@@ -0,0 +1,200 @@
+/*
+ * BoardGeometry
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shape of a board of dice.  Dice are numbered row by row so that the die at 
+ * <code>letters[x][y]</code> is cell <code>(x * width) + y</code>, and the 
+ * cells touching each cell (including diagonally) are worked out once per 
+ * board size so that searches can walk flat arrays instead of testing bounds 
+ * at every step.  The usual sizes are ready from the start and others are 
+ * made the first time they are asked for.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     WordFinder
+ * @see     BoardChecker
+ */
+public class BoardGeometry {
+
+    private static final Map<Integer, BoardGeometry> geometries 
+        = new HashMap<Integer, BoardGeometry>();
+    
+    static {
+        forSize(4, 4);
+        forSize(5, 5);
+        forSize(6, 6);
+    }
+
+    private final int height;
+    private final int width;
+    private final int[][] neighbours;
+
+    private BoardGeometry(int height, int width) {
+        this.height = height;
+        this.width = width;
+        this.neighbours = new int[height * width][];
+        int[] buffer = new int[8];
+        for (int x = 0; x < height; x++) {
+            for (int y = 0; y < width; y++) {
+                int n = 0;
+                for (int i = Math.max(x - 1, 0); 
+                        i <= Math.min(x + 1, height - 1); i++) {
+                    for (int j = Math.max(y - 1, 0); 
+                            j <= Math.min(y + 1, width - 1); j++) {
+                        if (i != x || j != y) {
+                            buffer[n++] = (i * width) + j;
+                        }
+                    }
+                }
+                int[] cells = new int[n];
+                System.arraycopy(buffer, 0, cells, 0, n);
+                this.neighbours[(x * width) + y] = cells;
+            }
+        }
+    }
+
+    /**
+     * Gets the geometry of a board with the specified number of rows and 
+     * columns.
+     *
+     * @param   height  <code>int</code> number of rows 
+     *                  (<code>letters.length</code>).
+     * @param   width   <code>int</code> number of columns 
+     *                  (<code>letters[0].length</code>).
+     * @return          <code>BoardGeometry</code>.
+     * @throws  IllegalArgumentException    If either dimension is less than 1.
+     */
+    public static BoardGeometry forSize(int height, int width) {
+        if (height < 1 || width < 1) {
+            throw new IllegalArgumentException("No such board: " + height 
+                + " x " + width);
+        }
+        Integer key = Integer.valueOf((height << 16) | width);
+        synchronized (geometries) {
+            BoardGeometry geometry = geometries.get(key);
+            if (geometry == null) {
+                geometry = new BoardGeometry(height, width);
+                geometries.put(key, geometry);
+            }
+            return geometry;
+        }
+    }
+
+    /**
+     * Gets the geometry of the specified board.
+     *
+     * @param   letters <code>char[][]</code> board.
+     * @return          <code>BoardGeometry</code>.
+     */
+    public static BoardGeometry forBoard(char[][] letters) {
+        return forSize(letters.length, letters[0].length);
+    }
+
+    /**
+     * Gets the number of rows on the board.
+     *
+     * @return  <code>int</code> number of rows.
+     */
+    public int height() {
+        return this.height;
+    }
+
+    /**
+     * Gets the number of columns on the board.
+     *
+     * @return  <code>int</code> number of columns.
+     */
+    public int width() {
+        return this.width;
+    }
+
+    /**
+     * Gets the number of cells (dice) on the board.
+     *
+     * @return  <code>int</code> number of cells.
+     */
+    public int cells() {
+        return this.neighbours.length;
+    }
+
+    /**
+     * Gets the cell number of the die at <code>x</code>, <code>y</code>.
+     *
+     * @param   x   <code>int</code> row.
+     * @param   y   <code>int</code> column.
+     * @return      <code>int</code> cell number.
+     */
+    public int cell(int x, int y) {
+        return (x * this.width) + y;
+    }
+
+    /**
+     * Gets the row of the specified cell.
+     *
+     * @param   cell    <code>int</code> cell number.
+     * @return          <code>int</code> row.
+     */
+    public int x(int cell) {
+        return cell / this.width;
+    }
+
+    /**
+     * Gets the column of the specified cell.
+     *
+     * @param   cell    <code>int</code> cell number.
+     * @return          <code>int</code> column.
+     */
+    public int y(int cell) {
+        return cell % this.width;
+    }
+
+    /**
+     * Gets the cells touching the specified cell.  The array is shared and 
+     * must not be changed.
+     *
+     * @param   cell    <code>int</code> cell number.
+     * @return          <code>int[]</code> of neighbouring cell numbers.
+     */
+    public int[] neighbours(int cell) {
+        return this.neighbours[cell];
+    }
+
+    /**
+     * Gets the letters of <code>letters</code> laid out by cell number.
+     *
+     * @param   letters <code>char[][]</code> board of this size.
+     * @return          <code>char[]</code> indexed by cell number.
+     */
+    public char[] flatten(char[][] letters) {
+        char[] cells = new char[cells()];
+        for (int x = 0; x < this.height; x++) {
+            System.arraycopy(letters[x], 0, cells, x * this.width, this.width);
+        }
+        return cells;
+    }
+}
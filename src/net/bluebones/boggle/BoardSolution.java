@@ -0,0 +1,160 @@
+/*
+ * BoardSolution
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every dictionary word on a board, as found by <code>BoardSolver</code>.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     BoardSolver
+ */
+public class BoardSolution {
+
+    private Map<String, SolvedWord> words;
+    private List<SolvedWord> sorted;
+    private int maximumScore = 0;
+    private SolvedWord longestWord = null;
+
+    /**
+     * Initializes a new <code>BoardSolution</code>.
+     *
+     * @param   words   <code>Map</code> of upper case word to the 
+     *                  <code>SolvedWord</code> for it.
+     */
+    BoardSolution(Map<String, SolvedWord> words) {
+        this.words = words;
+        this.sorted = new ArrayList<SolvedWord>(words.values());
+        Collections.sort(this.sorted);
+        for (SolvedWord word : this.sorted) {
+            this.maximumScore += word.points();
+            if (this.longestWord == null 
+                    || word.word().length() > this.longestWord.word().length()) {
+                this.longestWord = word;
+            }
+        }
+        this.sorted = Collections.unmodifiableList(this.sorted);
+    }
+
+    /**
+     * Gets every word on the board in alphabetical order.
+     *
+     * @return  <code>List</code> of <code>SolvedWord</code>s.
+     */
+    public List<SolvedWord> words() {
+        return this.sorted;
+    }
+
+    /**
+     * Gets the number of words on the board.
+     *
+     * @return  <code>int</code> number of words.
+     */
+    public int size() {
+        return this.words.size();
+    }
+
+    /**
+     * Determines if the specified word is a dictionary word that can be made 
+     * on the board.  A Qu die must be spelt out as "QU".
+     *
+     * @param   word    <code>CharSequence</code> word in any case.
+     * @return          <code>boolean</code>.
+     */
+    public boolean contains(CharSequence word) {
+        return (get(word) != null);
+    }
+
+    /**
+     * Determines if the word made up of the first <code>length</code> chars 
+     * of <code>word</code>, which must already be in upper case, is a 
+     * dictionary word that can be made on the board.  A Qu die must be spelt 
+     * out as "QU".
+     *
+     * @param   word    <code>char[]</code> holding the word.
+     * @param   length  <code>int</code> length of the word.
+     * @return          <code>boolean</code>.
+     */
+    public boolean contains(char[] word, int length) {
+        return (get(word, length) != null);
+    }
+
+    /**
+     * Gets the details of the specified word.
+     *
+     * @param   word    <code>CharSequence</code> word in any case.
+     * @return          <code>SolvedWord</code> or <code>null</code> if 
+     *                  <code>word</code> is not on the board.
+     */
+    public SolvedWord get(CharSequence word) {
+        char[] chars = WordNormalizer.scratch(word.length());
+        return get(chars, WordNormalizer.upperCase(word, chars));
+    }
+
+    // Binary searches the sorted words so that looking a word up needs no 
+    // String for the map.
+    private SolvedWord get(char[] word, int length) {
+        int low = 0;
+        int high = this.sorted.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            SolvedWord solved = this.sorted.get(mid);
+            int order = WordNormalizer.compare(solved.word(), word, length);
+            if (order < 0) {
+                low = mid + 1;
+            } else if (order > 0) {
+                high = mid - 1;
+            } else {
+                return solved;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the score of a player who found every word on the board and had no 
+     * duplicates, the theoretical maximum for the board.
+     *
+     * @return  <code>int</code> maximum score.
+     */
+    public int maximumScore() {
+        return this.maximumScore;
+    }
+
+    /**
+     * Gets the longest word on the board (the alphabetically first if there is 
+     * a tie).
+     *
+     * @return  <code>SolvedWord</code> or <code>null</code> if there are no 
+     *          words on the board.
+     */
+    public SolvedWord longestWord() {
+        return this.longestWord;
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * BoardSolver
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds every dictionary word on a board.  This is the search 
+ * <code>WordFinder</code> uses without any of the AI's throttling, so it 
+ * gives the full, repeatable answer for a board: the theoretical maximum 
+ * score, the longest word and so on.
+ * <br /><br />
+ * A <code>BoardSolver</code> keeps no state between calls so one can be 
+ * shared by any number of threads.  <code>solveParallel</code> splits a single 
+ * board across a <code>ForkJoinPool</code> for when one big board needs 
+ * solving quickly.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     BoardSolution
+ */
+public class BoardSolver {
+
+    /** 
+     * Shortest word that counts with <code>Scoring.STANDARD</code>.  Other 
+     * scorings may allow shorter or demand longer words.
+     */
+    public static final int MINIMUM_WORD_LENGTH = 3;
+    
+    /** Longest word length, meaning search without any limit. */
+    public static final int NO_LIMIT = Integer.MAX_VALUE;
+    
+    // Boards with at least this many dice are split by first step as well as
+    // by starting die when solved in parallel.
+    private static final int SPLIT_FIRST_STEP_CELLS = 25;
+
+    private Dictionary dictionary;
+    private Scoring scoring;
+    private int minimumWordLength;
+
+    /**
+     * Receives words as a search finds them.
+     */
+    public interface Listener {
+
+        /**
+         * Called for each word found.  The arrays belong to the search and are 
+         * only valid for the duration of the call.
+         *
+         * @param   word        <code>char[]</code> holding the word in upper 
+         *                      case.
+         * @param   length      <code>int</code> length of the word.
+         * @param   path        <code>int[]</code> holding the cells of the 
+         *                      word.
+         * @param   pathLength  <code>int</code> number of cells in the path.
+         * @return              <code>boolean</code>, <code>false</code> to 
+         *                      stop the search.
+         */
+        boolean found(char[] word, int length, int[] path, int pathLength);
+    }
+
+    /**
+     * A <code>Listener</code> that can also stop a search between words, for 
+     * searches that may go a long time without finding anything.
+     */
+    public interface CancellableListener extends Listener {
+
+        /**
+         * Called at every die the search visits.
+         *
+         * @return  <code>boolean</code>, <code>true</code> to stop the 
+         *          search.
+         */
+        boolean isCancelled();
+    }
+
+    /**
+     * Initializes a new <code>BoardSolver</code> using the specified 
+     * dictionary.
+     *
+     * @param   dictionary  <code>Dictionary</code> of valid words.
+     */
+    public BoardSolver(Dictionary dictionary) {
+        this(dictionary, Scoring.STANDARD);
+    }
+
+    /**
+     * Initializes a new <code>BoardSolver</code> using the specified 
+     * dictionary and scoring the words it finds with <code>scoring</code>.
+     *
+     * @param   dictionary  <code>Dictionary</code> of valid words.
+     * @param   scoring     <code>Scoring</code> to score words with.
+     */
+    public BoardSolver(Dictionary dictionary, Scoring scoring) {
+        this.dictionary = dictionary;
+        this.scoring = scoring;
+        this.minimumWordLength = scoring.minimumWordLength();
+    }
+
+    /**
+     * Finds every dictionary word on the specified board.
+     *
+     * @param   letters <code>char[][]</code> board to solve.
+     * @return          <code>BoardSolution</code>.
+     * @throws  IllegalArgumentException    If the board has more than 64 
+     *                                      dice.
+     */
+    public BoardSolution solve(char[][] letters) {
+        final Map<String, SolvedWord> words = new HashMap<String, SolvedWord>();
+        search(letters, NO_LIMIT, new Listener() {
+            public boolean found(char[] word, int length, int[] path, 
+                    int pathLength) {
+                add(words, word, length, path, pathLength);
+                return true;
+            }
+        });
+        return new BoardSolution(words);
+    }
+
+    /**
+     * Finds every dictionary word on the specified board using the common 
+     * <code>ForkJoinPool</code>.
+     *
+     * @param   letters <code>char[][]</code> board to solve.
+     * @return          <code>BoardSolution</code>, the same as 
+     *                  <code>solve</code> would give.
+     * @throws  IllegalArgumentException    If the board has more than 64 
+     *                                      dice.
+     */
+    public BoardSolution solveParallel(char[][] letters) {
+        return solveParallel(letters, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Finds every dictionary word on the specified board, splitting the work 
+     * by starting die (and on large boards by first step too) into tasks run 
+     * on <code>pool</code>.  Each task collects its own words and the results 
+     * are merged as the tasks are joined, so nothing is shared or locked 
+     * while searching.
+     *
+     * @param   letters <code>char[][]</code> board to solve.
+     * @param   pool    <code>ForkJoinPool</code> to run on.
+     * @return          <code>BoardSolution</code>, the same as 
+     *                  <code>solve</code> would give.
+     * @throws  IllegalArgumentException    If the board has more than 64 
+     *                                      dice.
+     */
+    public BoardSolution solveParallel(char[][] letters, ForkJoinPool pool) {
+        BoardGeometry geometry = BoardGeometry.forBoard(letters);
+        if (geometry.cells() > Long.SIZE) {
+            throw new IllegalArgumentException("Cannot search a board of "
+                + geometry.cells() + " dice.");
+        }
+        boolean splitFirstStep = (geometry.cells() >= SPLIT_FIRST_STEP_CELLS);
+        List<SolveTask> tasks = new ArrayList<SolveTask>();
+        for (int cell = 0; cell < geometry.cells(); cell++) {
+            if (splitFirstStep) {
+                int[] neighbours = geometry.neighbours(cell);
+                for (int i = 0; i < neighbours.length; i++) {
+                    tasks.add(new SolveTask(letters, cell, neighbours[i]));
+                }
+            } else {
+                tasks.add(new SolveTask(letters, cell, -1));
+            }
+        }
+        return new BoardSolution(pool.invoke(new MergeTask(tasks)));
+    }
+
+    /**
+     * Searches the board, passing each word found to <code>listener</code>.  
+     * A word is reported once for every path that makes it.
+     *
+     * @param   letters     <code>char[][]</code> board to search.
+     * @param   longestWord <code>int</code> length of the longest word to 
+     *                      look for, or <code>NO_LIMIT</code>.
+     * @param   listener    <code>Listener</code> to pass words to.
+     * @throws  IllegalArgumentException    If the board has more than 64 
+     *                                      dice.
+     */
+    public void search(char[][] letters, int longestWord, Listener listener) {
+        Search search = new Search(letters, longestWord, listener);
+        for (int cell = 0; cell < search.dice.length && ! search.stopped; 
+                cell++) {
+            search.find(cell, 0, 0, 0L);
+        }
+    }
+
+    // Adds a word found by a listener to words unless it is already there.
+    private void add(Map<String, SolvedWord> words, char[] word, int length, 
+            int[] path, int pathLength) {
+        String s = new String(word, 0, length);
+        if (! words.containsKey(s)) {
+            int[] cells = new int[pathLength];
+            System.arraycopy(path, 0, cells, 0, pathLength);
+            words.put(s, new SolvedWord(s, cells, this.scoring.points(s)));
+        }
+    }
+
+    /**
+     * Simple commandline test of BoardSolver.
+     *
+     * @param   args                    Commandline arguments.
+     * @throws  java.io.IOException     If the dictionary cannot be read.
+     */
+    public static void main(String[] args) throws java.io.IOException {
+        Dictionary dictionary = Dictionaries.readWords(
+            new java.io.File("resources/dict.txt"));
+        char[][] letters = new char[][] {
+            new char[] { 'L', 'I', 'V', 'P' },
+            new char[] { 'O', 'E', 'E', 'A' },
+            new char[] { 'B', 'B', 'N', 'A' },
+            new char[] { 'R', 'H', 'G', 'S' }
+        };
+        BoardSolution solution = new BoardSolver(dictionary).solve(letters);
+        System.out.println(solution.words());
+        System.out.println(solution.size() + " words, maximum score " 
+            + solution.maximumScore() + ", longest word " 
+            + solution.longestWord());
+    }
+
+    // Runs the tasks and merges their words in task order so that the path 
+    // kept for each word is the one a sequential solve would have found.
+    private static class MergeTask 
+            extends RecursiveTask<Map<String, SolvedWord>> {
+
+        private List<SolveTask> tasks;
+
+        private MergeTask(List<SolveTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        protected Map<String, SolvedWord> compute() {
+            invokeAll(this.tasks);
+            Map<String, SolvedWord> words = new HashMap<String, SolvedWord>();
+            for (SolveTask task : this.tasks) {
+                for (Map.Entry<String, SolvedWord> entry 
+                        : task.join().entrySet()) {
+                    if (! words.containsKey(entry.getKey())) {
+                        words.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            return words;
+        }
+    }
+
+    // Finds the words starting on one die, or if next is not -1 the words 
+    // starting on one die and going on to next.
+    private class SolveTask extends RecursiveTask<Map<String, SolvedWord>> {
+
+        private char[][] letters;
+        private int start;
+        private int next;
+
+        private SolveTask(char[][] letters, int start, int next) {
+            this.letters = letters;
+            this.start = start;
+            this.next = next;
+        }
+
+        protected Map<String, SolvedWord> compute() {
+            final Map<String, SolvedWord> words 
+                = new HashMap<String, SolvedWord>();
+            Search search = new Search(this.letters, NO_LIMIT, new Listener() {
+                public boolean found(char[] word, int length, int[] path, 
+                        int pathLength) {
+                    add(words, word, length, path, pathLength);
+                    return true;
+                }
+            });
+            if (this.next < 0) {
+                search.find(this.start, 0, 0, 0L);
+            } else {
+                search.findVia(this.start, this.next);
+            }
+            return words;
+        }
+    }
+
+    // State of one search.  Kept apart from the solver so that searches can 
+    // run side by side.
+    private class Search {
+
+        private char[] dice;
+        private BoardGeometry geometry;
+        private int longestWord;
+        private Listener listener;
+        // listener again if it can cancel the search, otherwise null.
+        private CancellableListener cancellable;
+        // Letters and cells of the path currently being explored.  The word 
+        // is long enough for every die to be a Qu.
+        private char[] word;
+        private int[] path;
+        private boolean stopped = false;
+
+        private Search(char[][] letters, int longestWord, Listener listener) {
+            this.geometry = BoardGeometry.forBoard(letters);
+            if (this.geometry.cells() > Long.SIZE) {
+                throw new IllegalArgumentException("Cannot search a board of "
+                    + this.geometry.cells() + " dice.");
+            }
+            this.dice = this.geometry.flatten(letters);
+            this.longestWord = longestWord;
+            this.listener = listener;
+            if (listener instanceof CancellableListener) {
+                this.cancellable = (CancellableListener) listener;
+            }
+            this.word = new char[this.dice.length * 2];
+            this.path = new int[this.dice.length];
+        }
+
+        // Extends the word held in the first length chars of this.word with 
+        // the die in cell.  Cells already on the path are marked by their bit 
+        // in used.  Allocates nothing.
+        private void find(int cell, int length, int pathLength, long used) {
+            if (this.cancellable != null && this.cancellable.isCancelled()) {
+                this.stopped = true;
+                return;
+            }
+            used |= 1L << cell;
+            this.path[pathLength++] = cell;
+            char c = this.dice[cell];
+            this.word[length++] = c;
+            if (c == 'Q') {
+                this.word[length++] = 'U';
+            }
+            // No point going any further if no word starts this way.
+            if (! dictionary.hasPrefix(this.word, length)) {
+                return;
+            }
+            if (length >= minimumWordLength 
+                    && dictionary.isValid(this.word, length)
+                    && ! this.listener.found(this.word, length, this.path, 
+                        pathLength)) {
+                this.stopped = true;
+                return;
+            }
+            if (length >= this.longestWord) {
+                return;
+            }
+            int[] neighbours = this.geometry.neighbours(cell);
+            for (int i = 0; i < neighbours.length && ! this.stopped; i++) {
+                if ((used & (1L << neighbours[i])) == 0) {
+                    find(neighbours[i], length, pathLength, used);
+                }
+            }
+        }
+        
+        // As find(start, 0, 0, 0L) but only following the path that goes on 
+        // to next.  A word of the single die start is left to the task for 
+        // its first neighbour.
+        private void findVia(int start, int next) {
+            int length = 0;
+            this.path[0] = start;
+            char c = this.dice[start];
+            this.word[length++] = c;
+            if (c == 'Q') {
+                this.word[length++] = 'U';
+            }
+            if (! dictionary.hasPrefix(this.word, length)) {
+                return;
+            }
+            if (length >= minimumWordLength 
+                    && next == this.geometry.neighbours(start)[0]
+                    && dictionary.isValid(this.word, length)
+                    && ! this.listener.found(this.word, length, this.path, 1)) {
+                this.stopped = true;
+                return;
+            }
+            if (length < this.longestWord) {
+                find(next, length, 1, 1L << start);
+            }
+        }
+    }
+}
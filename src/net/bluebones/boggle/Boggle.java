@@ -21,14 +21,18 @@
  * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
  */
 
-//TODO Would be nice to know theoretical maximum in results (for long games run 
-// best AI)
-
 package net.bluebones.boggle;
 
+import java.io.File;
 import java.io.InputStream;
 import java.io.IOException;
 import java.net.URLDecoder;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 
@@ -55,8 +59,28 @@ public class Boggle {
     // level where needed.
     public final static String DICT_PATH = "/resources/dict.txt";
     
-    /** Dictionary that provides the list of acceptable words. */
-    public static Dictionary dictionary;
+    /** Path to the prebuilt (DAWG) dictionary, preferred if present. */
+    public final static String DAWG_PATH = "/resources/dict.dawg";
+    
+    /** 
+     * System property naming a DAWG file to memory-map instead of loading the 
+     * bundled dictionary.  Lets many games on one machine share a dictionary.
+     */
+    public final static String MAPPED_DAWG_PROPERTY = "boggle.dawg";
+    
+    /** 
+     * System property naming a word list file to read instead of the bundled 
+     * dictionary.
+     */
+    public final static String WORDS_PROPERTY = "boggle.words";
+    
+    /** Seconds to wait for the dictionary to finish loading before giving 
+        up. */
+    public static final int DICTIONARY_TIMEOUT_SECS = 30;
+    
+    // Dictionary that provides the list of acceptable words, which may still 
+    // be loading.
+    private static volatile Future<Dictionary> dictionary;
     
     private static Player player;
     
@@ -71,6 +95,9 @@ public class Boggle {
      */
     public static void main(String[] args) {
 
+        // Before anything can make an RMI call.
+        ClientSender.limitRmiCalls();
+        
         String errMsg = "Could not set look and feel because of ";
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -84,6 +111,8 @@ public class Boggle {
             Boggle.debug(errMsg + e);
         }
         
+        // The window is up before the dictionary is ready.  Anything needing 
+        // words waits for it in dictionary().
         player = new HumanPlayer();
         /* TODO AI that adjusts to situation:
         board quality + shortness = low number
@@ -163,17 +192,177 @@ public class Boggle {
     //TODO will this be a jar at some point and thus this is wrong?
     private static void loadDictionary() {
 
-        String errMsg = "Could not find a dictionary.\nYou will be "
+        final String errMsg = "Could not find a dictionary.\nYou will be "
             + "unable to host a game but may still participate.\nTo "
             + "correct this problem please supply a dictionary at "
             + Boggle.DICT_PATH;
+        FutureTask<Dictionary> task = new FutureTask<Dictionary>(
+            new Callable<Dictionary>() {
+                public Dictionary call() throws IOException {
+                    try {
+                        Dictionary dictionary = readDictionary();
+                        // Work it out now so starting a game need not.
+                        dictionary.checksum();
+                        return dictionary;
+                    } catch (IOException e) {
+                        //TODO
+                        Boggle.debug(e.toString());
+                        player.problem(errMsg);
+                        throw e;
+                    } catch (RuntimeException e) {
+                        // Such as an unknown backend named by 
+                        // boggle.dictionary, which would otherwise only 
+                        // show when a game failed to start.
+                        Boggle.debug(e.toString());
+                        player.problem(errMsg + "\n(" + e.getMessage() + ")");
+                        throw e;
+                    }
+                }
+            });
+        Boggle.dictionary = task;
+        Thread thread = new Thread(task, "Dictionary loader");
+        thread.setDaemon(true);
+        thread.start();
+        
+        // A bundled dictionary cannot change but one named on the 
+        // commandline can.
+        File file = dictionaryFile();
+        if (file != null) {
+            new DictionaryWatcher(file, DictionaryWatcher.DEFAULT_INTERVAL)
+                .start();
+        }
+    }
+    
+    /**
+     * Gets the dictionary that provides the list of acceptable words, waiting 
+     * up to <code>DICTIONARY_TIMEOUT_SECS</code> for it if it is still 
+     * loading.
+     *
+     * @return  <code>Dictionary</code>.
+     * @throws  DictionaryUnavailableException  If no dictionary has been 
+     *                                          loaded, it could not be loaded 
+     *                                          or it is still loading after 
+     *                                          the timeout.
+     */
+    public static Dictionary dictionary() 
+            throws DictionaryUnavailableException {
+        return dictionary(Boggle.dictionary);
+    }
+    
+    /**
+     * Gets the dictionary as it stands now, without waiting for it to load.  
+     * Later changes of dictionary do not affect what is returned, so a game 
+     * can hold on to this to use the same words from start to finish.
+     *
+     * @return  <code>Future</code> of the <code>Dictionary</code>, 
+     *          <code>null</code> if no dictionary has been loaded.
+     */
+    public static Future<Dictionary> currentDictionary() {
+        return Boggle.dictionary;
+    }
+    
+    /**
+     * Waits up to <code>DICTIONARY_TIMEOUT_SECS</code> for a dictionary got 
+     * from <code>currentDictionary</code> to finish loading.
+     *
+     * @param   dictionary  <code>Future</code> of the dictionary.
+     * @return              <code>Dictionary</code>.
+     * @throws  DictionaryUnavailableException  If <code>dictionary</code> is 
+     *                                          <code>null</code>, could not be 
+     *                                          loaded or is still loading 
+     *                                          after the timeout.
+     */
+    public static Dictionary dictionary(Future<Dictionary> dictionary) 
+            throws DictionaryUnavailableException {
+        if (dictionary == null) {
+            throw new DictionaryUnavailableException("No dictionary loaded.");
+        }
+        try {
+            return dictionary.get(DICTIONARY_TIMEOUT_SECS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new DictionaryUnavailableException("Dictionary still not "
+                + "loaded after " + DICTIONARY_TIMEOUT_SECS + " seconds.", e);
+        } catch (ExecutionException e) {
+            throw new DictionaryUnavailableException("Could not load "
+                + "dictionary.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DictionaryUnavailableException("Interrupted waiting "
+                + "for dictionary.", e);
+        }
+    }
+    
+    /**
+     * Sets the dictionary that provides the list of acceptable words, in 
+     * place of the one loaded at startup.  Games in progress carry on with 
+     * the dictionary they started with.
+     *
+     * @param   dictionary  <code>Dictionary</code> to use.
+     */
+    public static void setDictionary(final Dictionary dictionary) {
+        FutureTask<Dictionary> task = new FutureTask<Dictionary>(
+            new Callable<Dictionary>() {
+                public Dictionary call() {
+                    return dictionary;
+                }
+            });
+        task.run();
+        Boggle.dictionary = task;
+    }
+    
+    /**
+     * Gets the dictionary file named by the <code>MAPPED_DAWG_PROPERTY</code> 
+     * or <code>WORDS_PROPERTY</code> system property.
+     *
+     * @return  <code>File</code> or <code>null</code> if the bundled 
+     *          dictionary is in use.
+     */
+    public static File dictionaryFile() {
+        String name = System.getProperty(Boggle.MAPPED_DAWG_PROPERTY, 
+            System.getProperty(Boggle.WORDS_PROPERTY));
+        return (name == null ? null : new File(name));
+    }
+    
+    /**
+     * Reads the dictionary this machine is set up to use: the DAWG file named 
+     * by the <code>MAPPED_DAWG_PROPERTY</code> system property if there is 
+     * one, the word list named by the <code>WORDS_PROPERTY</code> system 
+     * property if there is one, otherwise the bundled DAWG or, failing that, 
+     * the bundled word list.  The words are held in the backend named by the 
+     * <code>Dictionaries.BACKEND_PROPERTY</code> system property if set.
+     *
+     * @return              <code>Dictionary</code>.
+     * @throws  IOException If no dictionary can be read.
+     */
+    public static Dictionary readDictionary() throws IOException {
+        String mapped = System.getProperty(Boggle.MAPPED_DAWG_PROPERTY);
+        if (mapped != null) {
+            Boggle.debug("Mapping dictionary " + mapped);
+            return Dictionaries.mapDawg(new File(mapped));
+        }
+        String words = System.getProperty(Boggle.WORDS_PROPERTY);
+        if (words != null) {
+            Boggle.debug("Reading dictionary " + words);
+            return Dictionaries.readWords(new File(words));
+        }
+        InputStream is = Boggle.class.getResourceAsStream(Boggle.DAWG_PATH);
+        if (is == null) {
+            Boggle.debug("No " + Boggle.DAWG_PATH + ", reading " 
+                + Boggle.DICT_PATH);
+            is = Boggle.class.getResourceAsStream(Boggle.DICT_PATH);
+            if (is == null) {
+                throw new IOException(Boggle.DICT_PATH + " not found");
+            }
+            try {
+                return Dictionaries.readWords(is);
+            } finally {
+                is.close();
+            }
+        }
         try {
-            InputStream is = Boggle.class.getResourceAsStream(Boggle.DICT_PATH);
-            Boggle.dictionary = new Dictionary(is);
-        } catch (IOException e) {
-            //TODO
-            Boggle.debug(e.toString());
-            player.problem(errMsg);
+            return Dictionaries.readDawg(is);
+        } finally {
+            is.close();
         }
     }
     
@@ -29,8 +29,10 @@ import java.net.UnknownHostException;
 import java.rmi.Naming;
 import java.rmi.NotBoundException;
 import java.rmi.RemoteException;
+import java.rmi.server.RemoteServer;
 import java.rmi.server.UID;
 import java.rmi.server.UnicastRemoteObject;
+import java.util.concurrent.Future;
 
 //TODO total number of distinct words in the round in results.
 
@@ -40,14 +42,20 @@ import java.rmi.server.UnicastRemoteObject;
  * @author  Thomas David Baker <bakert@gmail.com>
  * @version 0.3 $Revision: 1.3 $
  */
-public class Client extends UnicastRemoteObject implements IClient {
+public class Client extends RemoteServer implements IClient {
     
     private String addr;
+    // Identity the players are sent this client by when it is not reachable 
+    // over RMI.
+    private UID id = new UID();
+    private boolean exported;
     private Player player;
     private String name;
     //XXX this is an out and out bug - any server without a game in progress 
     // asking this client if it is a client of its will say yes.
     private GameId gameId = new GameId(null, null);
+    // This client's copy of the host's rubber, kept up to date with deltas.
+    private Rubber rubber = new Rubber();
     
     /**
      * Initialises a Client.
@@ -58,6 +66,24 @@ public class Client extends UnicastRemoteObject implements IClient {
      */
     public Client(Player player, String name) 
             throws RemoteException, UnknownHostException {
+        this(player, name, true);
+    }
+
+    /**
+     * Initialises a Client, exporting it and binding it in the RMI registry 
+     * only if <code>rmi</code> is <code>true</code>.  A client that talks to 
+     * its host over NIO is never called over RMI so does not listen for it.
+     *
+     * @param   player                  <code>Player</code> this client is for.
+     * @param   name                    <code>String</code> name of the player.
+     * @param   rmi                     <code>boolean</code> whether to be 
+     *                                  reachable over RMI.
+     * @throws  RemoteException         If anything goes wrong with the RMI.
+     * @throws  UnknownHostException    If client is unable to determine its
+     *                                  own address.
+     */
+    public Client(Player player, String name, boolean rmi) 
+            throws RemoteException, UnknownHostException {
         Boggle.debug("Creating new Client.");
          //TODO send letters in threads so they all at least set off at the same 
         // time.
@@ -66,7 +92,12 @@ public class Client extends UnicastRemoteObject implements IClient {
         //TODO don't do any of this with Strings do it with objects.
         String ipAddress = InetAddress.getLocalHost().getHostAddress();
         this.addr = "//" + ipAddress + ":" + this.player.getPort() 
-            + "/" + new UID();
+            + "/" + this.id;
+        if (! rmi) {
+            return;
+        }
+        UnicastRemoteObject.exportObject(this, 0);
+        this.exported = true;
         try {
             Boggle.debug("Trying to bind client at address " + this.addr);
             Naming.rebind(this.addr, this);
@@ -100,10 +131,41 @@ public class Client extends UnicastRemoteObject implements IClient {
      */
     public void results(Round round, Rubber rubber) throws RemoteException {
         Boggle.debug("Received results (" + this.addr + ").");
+        adopt(rubber);
         this.player.setRubber(rubber);
         this.player.results(round);
     }
     
+    /**
+     * Gets this machine's dictionary if it holds exactly the words the host 
+     * will mark the current game with, so that words can be checked here 
+     * with the same result.  Never waits for the dictionary to load.
+     *
+     * @return  <code>Dictionary</code> or <code>null</code> if there is no 
+     *          dictionary here ready or it is not the same as the host's.
+     */
+    public Dictionary gameDictionary() {
+        Future<Dictionary> local = Boggle.currentDictionary();
+        if (local == null || ! local.isDone()) {
+            return null;
+        }
+        try {
+            Dictionary dictionary = Boggle.dictionary(local);
+            return (this.gameId.markedWith(dictionary) ? dictionary : null);
+        } catch (DictionaryUnavailableException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Gets the length of the shortest word that counts in the current game.
+     *
+     * @return  <code>int</code> length.
+     */
+    public int minimumWordLength() {
+        return this.gameId.minimumWordLength();
+    }
+    
     /**
      * Determines if this Client is actively connected to the specified game.
      *
@@ -132,9 +194,39 @@ public class Client extends UnicastRemoteObject implements IClient {
      * @param   r   <code>Rubber</code> to set.
      */
     public void setRubber(Rubber r) throws RemoteException {
+        adopt(r);
         this.player.setRubber(r);
     }
     
+    /**
+     * Applies changes in the rubber to this client's copy of it and passes 
+     * the result on to the player.
+     *
+     * @param   delta           <code>RubberDelta</code> of the changes.
+     * @throws  RemoteException If changes before <code>delta</code> are 
+     *                          missing, so that the host knows to send every 
+     *                          score next time.
+     */
+    public void updateRubber(RubberDelta delta) throws RemoteException {
+        Rubber rubber;
+        synchronized (this) {
+            if (! this.rubber.apply(delta)) {
+                throw new RemoteException("Rubber changes before version " 
+                    + delta.fromVersion() + " are missing.");
+            }
+            rubber = this.rubber.copy();
+        }
+        this.player.setRubber(rubber);
+    }
+    
+    // Takes a copy of a whole rubber as the one to apply deltas to.  A copy,
+    // as the host's own client is handed the host's rubber itself.
+    private synchronized void adopt(Rubber rubber) {
+        if (rubber != null) {
+            this.rubber = rubber.copy();
+        }
+    }
+    
     /**
      * Gets the RMI address of this Client.
      *
@@ -202,6 +294,25 @@ public class Client extends UnicastRemoteObject implements IClient {
         server.writeMsg("hi");
     }
     
+    /**
+     * Whether this client can be called over RMI.
+     *
+     * @return  <code>boolean</code>.
+     */
+    boolean isExported() {
+        return this.exported;
+    }
+    
+    /**
+     * Gets the identity players are sent this client by when it cannot be 
+     * called over RMI.
+     *
+     * @return  <code>UID</code>.
+     */
+    UID id() {
+        return this.id;
+    }
+    
     /**
      * Gets a <code>String</code> representation of this <code>Client</code>.
      *
@@ -0,0 +1,312 @@
+/*
+ * ClientSender
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package net.bluebones.boggle;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passes results and rubber details out to a <code>Server</code>'s clients 
+ * on a small shared pool of threads rather than a new thread per send.
+ * <br /><br />
+ * Each client has its own queue of sends, which go out one at a time in the
+ * order they were made.  Only the latest rubber details are worth sending, 
+ * so a rubber send still waiting in a client's queue is dropped when another 
+ * one is queued for that client.
+ * <br /><br />
+ * A send over RMI holds one of the <code>MAXIMUM_THREADS</code> threads until 
+ * the client answers, and removing the client does not cut it short.  Left 
+ * to itself RMI waits for an answer forever, so that as many unresponsive 
+ * clients as there are threads would stop every send to every client.  
+ * <code>limitRmiCalls</code> makes RMI give up after 
+ * <code>RMI_RESPONSE_TIMEOUT_MILLIS</code> instead, which is then the 
+ * longest an unresponsive client can keep a thread from the rest.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     Server
+ */
+public final class ClientSender {
+
+    /** Most threads that will be sending at once. */
+    public static final int MAXIMUM_THREADS = 8;
+    
+    /** Milliseconds an RMI call waits for a client to answer. */
+    public static final int RMI_RESPONSE_TIMEOUT_MILLIS = 15000;
+    
+    // System property RMI reads its response timeout from, once, when it 
+    // first makes a call.
+    private static final String RESPONSE_TIMEOUT_PROPERTY 
+        = "sun.rmi.transport.tcp.responseTimeout";
+    
+    // Seconds a thread with nothing to send waits before finishing.
+    private static final long KEEP_ALIVE_SECS = 30;
+
+    private ThreadPoolExecutor executor;
+    private Map<NamedClient, Mailbox> mailboxes 
+        = new HashMap<NamedClient, Mailbox>();
+    private int queued = 0;
+    private int peakQueued = 0;
+    private long sent = 0;
+    private long coalesced = 0;
+
+    /**
+     * Makes RMI calls give up after <code>RMI_RESPONSE_TIMEOUT_MILLIS</code> 
+     * unless a timeout has been set on the commandline.  Only has an effect 
+     * if called before the first RMI call this JVM makes.
+     */
+    public static void limitRmiCalls() {
+        if (System.getProperty(RESPONSE_TIMEOUT_PROPERTY) == null) {
+            System.setProperty(RESPONSE_TIMEOUT_PROPERTY, 
+                String.valueOf(RMI_RESPONSE_TIMEOUT_MILLIS));
+        }
+    }
+    
+    /** Initializes a new <code>ClientSender</code>. */
+    public ClientSender() {
+        this.executor = new ThreadPoolExecutor(MAXIMUM_THREADS, 
+            MAXIMUM_THREADS, KEEP_ALIVE_SECS, TimeUnit.SECONDS, 
+            new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                private int count = 0;
+                
+                public synchronized Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Client sender " 
+                        + (++this.count));
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+    
+    /**
+     * Queues results to send to a client.
+     *
+     * @param   namedClient <code>NamedClient</code> to send to.
+     * @param   sender      <code>ResultsSender</code> that sends them.
+     */
+    public void send(NamedClient namedClient, ResultsSender sender) {
+        queue(namedClient, sender);
+    }
+    
+    /**
+     * Queues rubber details to send to a client in place of any still 
+     * waiting to go to it.
+     *
+     * @param   namedClient <code>NamedClient</code> to send to.
+     * @param   sender      <code>RubberSender</code> that sends them.
+     */
+    public void send(NamedClient namedClient, RubberSender sender) {
+        queue(namedClient, sender);
+    }
+    
+    private synchronized void queue(NamedClient namedClient, Runnable task) {
+        if (this.executor.isShutdown()) {
+            return;
+        }
+        Mailbox mailbox = this.mailboxes.get(namedClient);
+        if (mailbox == null) {
+            mailbox = new Mailbox(namedClient);
+            this.mailboxes.put(namedClient, mailbox);
+        }
+        if (task instanceof RubberSender) {
+            for (Iterator<Runnable> iter = mailbox.tasks.iterator(); 
+                    iter.hasNext(); ) {
+                if (iter.next() instanceof RubberSender) {
+                    iter.remove();
+                    this.queued--;
+                    this.coalesced++;
+                }
+            }
+        }
+        mailbox.tasks.add(task);
+        this.queued++;
+        this.peakQueued = Math.max(this.peakQueued, this.queued);
+        schedule(mailbox);
+    }
+    
+    // Puts the mailbox in line for a thread if it has something to send and 
+    // is not already in line or sending.
+    private void schedule(Mailbox mailbox) {
+        if (mailbox.scheduled || mailbox.tasks.isEmpty()) {
+            return;
+        }
+        try {
+            this.executor.execute(mailbox);
+            mailbox.scheduled = true;
+        } catch (RejectedExecutionException e) {
+            // Shut down meanwhile.
+            Boggle.debug("Not sending to " + mailbox.namedClient.name() 
+                + ": " + e);
+        }
+    }
+    
+    // Takes the next send for the mailbox, or null if there is none.
+    private synchronized Runnable next(Mailbox mailbox) {
+        Runnable task = mailbox.tasks.poll();
+        if (task != null) {
+            this.queued--;
+        }
+        return task;
+    }
+    
+    // Called when the mailbox has had its turn.
+    private synchronized void finished(Mailbox mailbox, boolean ran) {
+        if (ran) {
+            this.sent++;
+        }
+        mailbox.scheduled = false;
+        if (mailbox.tasks.isEmpty()) {
+            if (this.mailboxes.get(mailbox.namedClient) == mailbox) {
+                this.mailboxes.remove(mailbox.namedClient);
+            }
+        } else {
+            schedule(mailbox);
+        }
+    }
+    
+    /**
+     * Drops everything waiting to go to a client.  A send already under way
+     * is not stopped.
+     *
+     * @param   namedClient <code>NamedClient</code> that has left.
+     */
+    public synchronized void remove(NamedClient namedClient) {
+        Mailbox mailbox = this.mailboxes.get(namedClient);
+        if (mailbox != null) {
+            this.queued -= mailbox.tasks.size();
+            mailbox.tasks.clear();
+            if (! mailbox.scheduled) {
+                this.mailboxes.remove(namedClient);
+            }
+        }
+    }
+    
+    /** Stops sending, dropping anything still waiting to go. */
+    public synchronized void shutdown() {
+        for (Iterator<Mailbox> iter = this.mailboxes.values().iterator(); 
+                iter.hasNext(); ) {
+            iter.next().tasks.clear();
+        }
+        this.queued = 0;
+        this.executor.shutdown();
+    }
+    
+    /**
+     * Gets the number of sends waiting for a thread across all clients.
+     *
+     * @return  <code>int</code>.
+     */
+    public synchronized int queueDepth() {
+        return this.queued;
+    }
+    
+    /**
+     * Gets the number of sends waiting to go to a client.
+     *
+     * @param   namedClient <code>NamedClient</code> to check.
+     * @return              <code>int</code>.
+     */
+    public synchronized int queueDepth(NamedClient namedClient) {
+        Mailbox mailbox = this.mailboxes.get(namedClient);
+        return (mailbox == null ? 0 : mailbox.tasks.size());
+    }
+    
+    /**
+     * Gets the largest <code>queueDepth()</code> there has been.
+     *
+     * @return  <code>int</code>.
+     */
+    public synchronized int peakQueueDepth() {
+        return this.peakQueued;
+    }
+    
+    /**
+     * Gets the number of sends made, successful or not.
+     *
+     * @return  <code>long</code>.
+     */
+    public synchronized long sent() {
+        return this.sent;
+    }
+    
+    /**
+     * Gets the number of rubber sends dropped in favour of later ones.
+     *
+     * @return  <code>long</code>.
+     */
+    public synchronized long coalesced() {
+        return this.coalesced;
+    }
+    
+    /**
+     * Gets the number of threads currently sending.
+     *
+     * @return  <code>int</code>.
+     */
+    public int activeThreads() {
+        return this.executor.getActiveCount();
+    }
+    
+    public synchronized String toString() {
+        return "ClientSender (queued " + this.queued + ", peak " 
+            + this.peakQueued + ", sent " + this.sent + ", coalesced " 
+            + this.coalesced + ")";
+    }
+    
+    // A client's sends, run one per turn on the pool so that clients with a 
+    // lot queued take turns with the rest.
+    private class Mailbox implements Runnable {
+        
+        private NamedClient namedClient;
+        private LinkedList<Runnable> tasks = new LinkedList<Runnable>();
+        private boolean scheduled = false;
+        
+        Mailbox(NamedClient namedClient) {
+            this.namedClient = namedClient;
+        }
+        
+        public void run() {
+            Runnable task = next(this);
+            try {
+                if (task != null) {
+                    task.run();
+                }
+            } catch (RuntimeException e) {
+                Boggle.debug("Could not send to " + this.namedClient.name() 
+                    + ": " + e);
+            } finally {
+                finished(this, task != null);
+            }
+        }
+    }
+}
@@ -26,12 +26,13 @@ package net.bluebones.boggle;
 import java.net.UnknownHostException;
 import java.rmi.RemoteException;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
- * Thread that checks connection status every ten seconds and updates the 
- * ConnectionPanel to reflect current status.
+ * Thread that checks connection status every second and updates the 
+ * ConnectionPanel to reflect current status.  A client sends its host a 
+ * heartbeat each time, which both keeps its place in the game and tells it 
+ * whether it still has one.  A host leaves it to its <code>Server</code> to 
+ * drop clients that stop sending heartbeats.
  *
  * @author  Thomas David Baker <bakert@gmail.com>
  * @version 0.3 $Revision: 1.3 $
@@ -56,10 +57,9 @@ public class ConnectionMonitor implements Runnable {
     
     /**
      * Main action of the ConnectionMonitor.  Checks connection every second, 
-     * reporting changes to the ConnectionPanel.  Checks any clients this 
-     * Player may have and removes them from the Player's list if they are no 
-     * longer connected.  If this player is a client then checks connection
-     * to server and reports errors if not connected.
+     * reporting changes to the ConnectionPanel.  If this player is a client 
+     * then sends a heartbeat to the server and reports errors if not 
+     * connected.
      */
     public void run() {
         while (true) {
@@ -86,7 +86,7 @@ public class ConnectionMonitor implements Runnable {
         try {
             isClient = (remoteServer == null 
                 ? false 
-                : remoteServer.isClient(this.player.getClient()));        
+                : remoteServer.heartbeat(this.player.getClient()));
         } catch (RemoteException e) {
             //TODO should chain this this=>HumanPlayer=>UI=>ConnectionPanel
             // and remove ConnectionPanel from this (non-GUI) class?
@@ -99,11 +99,10 @@ public class ConnectionMonitor implements Runnable {
         }
         HostInfo hostInfo = this.player.getHostInfo();
         if (localServer != null && hostInfo != null) {
-            Set clients = monitorClients();
             //TODO could drop number of clients from display because you get
             // the score list now which effectively tells you.
             setConnection(ConnectionType.HOST, hostInfo.getSimpleAddr(), 
-                clients.size());
+                this.player.getClients().length);
         } else if (remoteServer != null && isClient) {
             setConnection(ConnectionType.CLIENT, hostInfo.getSimpleAddr(), 0);
         } else {
@@ -118,35 +117,6 @@ public class ConnectionMonitor implements Runnable {
 
     //TODO ant file that does the whole build and copies to rook1 and so on.
     
-    private Set monitorClients() {
-        
-        Set<NamedClient> activeClients = new HashSet<NamedClient>();
-        Set<NamedClient> inactiveClients = new HashSet<NamedClient>();
-        
-        NamedClient[] namedClients = this.player.getClients();
-        for (int i = 0; i < namedClients.length; i++) {
-            try {
-                if (namedClients[i].client().isActive(
-                        this.player.getServerGameId())) {
-                    activeClients.add(namedClients[i]);
-                } else {
-                    Boggle.debug("Someone returned false from active!");
-                    inactiveClients.add(namedClients[i]);
-                }
-            } catch (RemoteException e) {
-                //TODO exceptions only for exceptional circumstances!
-                Boggle.debug("Got a remote exception trying to contact "
-                    + "a client so removing");
-                Boggle.debug(e.toString());
-                inactiveClients.add(namedClients[i]);
-            }
-        }
-        if (inactiveClients.size() > 0) {
-            this.player.removeClients(inactiveClients);
-        }
-        return activeClients;
-    }
-    
     private void setConnection(ConnectionType type, String addr, int clients) {
         //TODO this is a "side effect" and not desirable to do it here?
         if ((this.connType != type) && (type == ConnectionType.NONE)) {
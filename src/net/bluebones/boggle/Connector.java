@@ -68,23 +68,36 @@ public class Connector implements Runnable {
         try {
             //TODO doing too much here?
             Boggle.debug("Starting the difficult bits of Connector.");
-            this.player.setRemoteServer(
-                (IServer) Naming.lookup(hostInfo.getAddr()));
-            this.player.createRegistry(hostInfo.port());
-            //TODO is this too time consuming to do on the off chance?  Could 
-            // instead check if server is the same as current server if 
-            // implement equals?
-            if ((this.player.getClient() != null) 
-                    && (this.player.getRemoteServer().isClient(
-                    this.player.getClient()))) {
-                this.player.problem("You are already connected to that host.");
-                this.player.setNotConnecting();
-                this.player.setConnection(ConnectionType.CLIENT, 
-                    this.player.getHostInfo().address(), 0);
-                return;
+            if (hostInfo.usesNio()) {
+                // A new connection is always a new client, and replacing 
+                // the old connection leaves the host it was to.
+                Client client = new Client(this.player, gameInfo.name(), 
+                    false);
+                this.player.setRemoteServer(
+                    NioServerProxy.connect(hostInfo, client));
+                this.player.setHostInfo(hostInfo);
+                this.player.setClient(client);
+            } else {
+                this.player.setRemoteServer(
+                    (IServer) Naming.lookup(hostInfo.getAddr()));
+                this.player.createRegistry(hostInfo.port());
+                //TODO is this too time consuming to do on the off chance?  
+                // Could instead check if server is the same as current server 
+                // if implement equals?
+                if ((this.player.getClient() != null) 
+                        && (this.player.getRemoteServer().isClient(
+                        this.player.getClient()))) {
+                    this.player.problem(
+                        "You are already connected to that host.");
+                    this.player.setNotConnecting();
+                    this.player.setConnection(ConnectionType.CLIENT, 
+                        this.player.getHostInfo().address(), 0);
+                    return;
+                }
+                this.player.setHostInfo(hostInfo);
+                this.player.setClient(
+                    new Client(this.player, gameInfo.name()));
             }
-            this.player.setHostInfo(hostInfo);
-            this.player.setClient(new Client(this.player, gameInfo.name()));
             //TODO clients get added in too many places?
             this.player.getRemoteServer().addClient(
                 this.player.getClient().getAddr(), 
@@ -0,0 +1,299 @@
+/*
+ * Dawg
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only minimized word graph (DAWG) answering lookups straight from its 
+ * binary form as written by <code>DawgBuilder</code>.  Nothing is created per 
+ * word so the whole dictionary costs little more than the size of the buffer.
+ * <br /><br />
+ * The format is a header of big-endian <code>int</code>s (magic, version, 
+ * word count, edge count, offset of the root's edges, alphabet length) 
+ * followed by the alphabet as <code>char</code>s and then one 
+ * <code>int</code> per edge.  An edge holds the code of its letter (the 
+ * letter's position in the alphabet, starting at 1) in the top six bits, a 
+ * flag saying it is the last edge of its node, a flag saying a word ends on 
+ * it and in the low 24 bits the offset of the first edge of the node it leads 
+ * to (0 if that node has no edges).  The edges of a node are sorted by code.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     DawgBuilder
+ */
+class Dawg implements WordIndex {
+
+    /** Identifies a DAWG dictionary file ("BDWG"). */
+    static final int MAGIC = 0x42445747;
+    /** Version of the format written and understood. */
+    static final int VERSION = 1;
+    /** Length of the fixed part of the header in bytes. */
+    static final int HEADER_LENGTH = 24;
+    /** Maximum number of distinct letters that can be encoded. */
+    static final int MAX_ALPHABET = 63;
+
+    static final int CODE_SHIFT = 26;
+    static final int LAST_EDGE = 1 << 25;
+    static final int END_OF_WORD = 1 << 24;
+    static final int CHILD_MASK = (1 << 24) - 1;
+
+    private final ByteBuffer buffer;
+    private final int wordCount;
+    private final int root;
+    private final int edgesStart;
+    // Maps a char to its letter code, 0 for chars not in the alphabet.
+    private final byte[] codes;
+    // Maps a letter code back to its char.
+    private final char[] alphabet;
+
+    /**
+     * Initializes a <code>Dawg</code> over the specified buffer which must 
+     * hold a complete DAWG from its position onwards.
+     *
+     * @param   buffer      <code>ByteBuffer</code> holding the DAWG.
+     * @throws  IOException If the buffer does not hold a DAWG this class can 
+     *                      read.
+     */
+    Dawg(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.slice();
+        if (this.buffer.remaining() < HEADER_LENGTH
+                || this.buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a DAWG dictionary.");
+        }
+        if (this.buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported DAWG version " 
+                + this.buffer.getInt(4));
+        }
+        this.wordCount = this.buffer.getInt(8);
+        int edgeCount = this.buffer.getInt(12);
+        this.root = this.buffer.getInt(16);
+        int alphabetLength = this.buffer.getInt(20);
+        this.edgesStart = HEADER_LENGTH + (alphabetLength * 2);
+        if (this.buffer.remaining() < this.edgesStart + (edgeCount * 4)) {
+            throw new IOException("DAWG dictionary is truncated.");
+        }
+        char maxChar = 0;
+        for (int i = 0; i < alphabetLength; i++) {
+            maxChar = (char) Math.max(maxChar, 
+                this.buffer.getChar(HEADER_LENGTH + (i * 2)));
+        }
+        this.codes = new byte[maxChar + 1];
+        this.alphabet = new char[alphabetLength + 1];
+        for (int i = 0; i < alphabetLength; i++) {
+            char c = this.buffer.getChar(HEADER_LENGTH + (i * 2));
+            this.codes[c] = (byte) (i + 1);
+            this.alphabet[i + 1] = c;
+        }
+    }
+
+    /**
+     * Reads a <code>Dawg</code> from the specified stream into memory.
+     *
+     * @param   is          <code>InputStream</code> to read from.
+     * @return              <code>Dawg</code>.
+     * @throws  IOException If there is any problem reading the stream.
+     */
+    static Dawg read(InputStream is) throws IOException {
+        byte[] bytes = new byte[64 * 1024];
+        int length = 0;
+        int n;
+        while ((n = is.read(bytes, length, bytes.length - length)) != -1) {
+            length += n;
+            if (length == bytes.length) {
+                byte[] bigger = new byte[bytes.length * 2];
+                System.arraycopy(bytes, 0, bigger, 0, length);
+                bytes = bigger;
+            }
+        }
+        return new Dawg(ByteBuffer.wrap(bytes, 0, length));
+    }
+
+    public boolean contains(char[] word, int length) {
+        int edge = find(word, length);
+        return (edge != 0 && (edge & END_OF_WORD) != 0);
+    }
+
+    public boolean hasPrefix(char[] prefix, int length) {
+        return (length == 0 || find(prefix, length) != 0);
+    }
+
+    public int longestPrefix(char[] s, int length) {
+        int node = this.root;
+        for (int i = 0; i < length; i++) {
+            int edge = (node == 0 ? 0 : edge(node, s[i]));
+            if (edge == 0) {
+                return i;
+            }
+            node = edge & CHILD_MASK;
+        }
+        return length;
+    }
+
+    public int size() {
+        return this.wordCount;
+    }
+
+    /**
+     * Gets the words in this <code>Dawg</code> in ascending order.
+     *
+     * @return  <code>Iterator</code> over the words.
+     */
+    public Iterator<String> iterator() {
+        return new Words();
+    }
+
+    // Gets the edge reached by following the first length chars of s or 0 if
+    // there is no such path.
+    private int find(char[] s, int length) {
+        int node = this.root;
+        int edge = 0;
+        for (int i = 0; i < length; i++) {
+            if (node == 0) {
+                return 0;
+            }
+            edge = edge(node, s[i]);
+            if (edge == 0) {
+                return 0;
+            }
+            node = edge & CHILD_MASK;
+        }
+        return edge;
+    }
+
+    private int edgeAt(int i) {
+        return this.buffer.getInt(this.edgesStart + (i * 4));
+    }
+
+    private int edge(int node, char c) {
+        if (c >= this.codes.length || this.codes[c] == 0) {
+            return 0;
+        }
+        int code = this.codes[c];
+        for (int i = node; ; i++) {
+            int edge = edgeAt(i);
+            int edgeCode = edge >>> CODE_SHIFT;
+            if (edgeCode == code) {
+                return edge;
+            } else if (edgeCode > code || (edge & LAST_EDGE) != 0) {
+                return 0;
+            }
+        }
+    }
+
+    // Walks the graph depth first.  Edges are sorted by letter and letter 
+    // codes follow the order of the letters, so the words come out in 
+    // ascending order.
+    private class Words implements Iterator<String> {
+
+        // Index of the current edge at each depth.
+        private int[] edges = new int[16];
+        private char[] chars = new char[16];
+        private int depth = 0;
+        private String word;
+
+        private Words() {
+            if (Dawg.this.root != 0) {
+                push(Dawg.this.root);
+                this.word = (endsWord() ? word() : find());
+            }
+        }
+
+        public boolean hasNext() {
+            return (this.word != null);
+        }
+
+        public String next() {
+            if (this.word == null) {
+                throw new NoSuchElementException();
+            }
+            String word = this.word;
+            this.word = find();
+            return word;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private String find() {
+            while (step()) {
+                if (endsWord()) {
+                    return word();
+                }
+            }
+            return null;
+        }
+
+        // Moves to the next edge in depth first order, returning false once 
+        // there are none left.
+        private boolean step() {
+            int child = edgeAt(this.edges[this.depth - 1]) & CHILD_MASK;
+            if (child != 0) {
+                push(child);
+                return true;
+            }
+            while (this.depth > 0) {
+                int i = this.edges[this.depth - 1];
+                if ((edgeAt(i) & LAST_EDGE) == 0) {
+                    this.edges[this.depth - 1] = i + 1;
+                    this.chars[this.depth - 1] = letter(i + 1);
+                    return true;
+                }
+                this.depth--;
+            }
+            return false;
+        }
+
+        private void push(int edge) {
+            if (this.depth == this.edges.length) {
+                int[] edges = new int[this.depth * 2];
+                char[] chars = new char[this.depth * 2];
+                System.arraycopy(this.edges, 0, edges, 0, this.depth);
+                System.arraycopy(this.chars, 0, chars, 0, this.depth);
+                this.edges = edges;
+                this.chars = chars;
+            }
+            this.edges[this.depth] = edge;
+            this.chars[this.depth] = letter(edge);
+            this.depth++;
+        }
+
+        private char letter(int i) {
+            return Dawg.this.alphabet[edgeAt(i) >>> CODE_SHIFT];
+        }
+
+        private boolean endsWord() {
+            return ((edgeAt(this.edges[this.depth - 1]) & END_OF_WORD) != 0);
+        }
+
+        private String word() {
+            return new String(this.chars, 0, this.depth);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * DawgBuilder
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Compiles a word list into the minimized binary word graph read by 
+ * <code>Dawg</code>.  Used by the build to ship a prebuilt dictionary:
+ * <br /><br />
+ * <code>$ java net.bluebones.boggle.DawgBuilder dict.txt dict.dawg</code>
+ * <br /><br />
+ * Words must be added in sorted order.  Equivalent suffixes are merged as the 
+ * words go in (Daciuk et al.'s incremental algorithm) so the full, unminimized 
+ * tree never has to be built.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     Dawg
+ */
+public class DawgBuilder {
+
+    private State root = new State();
+    private Map<State, State> register = new HashMap<State, State>();
+    private TreeSet<Character> alphabet = new TreeSet<Character>();
+    private String previous = "";
+    private int wordCount = 0;
+    private boolean finished = false;
+
+    /** Initializes an empty <code>DawgBuilder</code>. */
+    public DawgBuilder() {}
+
+    /**
+     * Adds a word.  Words must be added in ascending order and blank words are 
+     * ignored.
+     *
+     * @param   word                        <code>String</code> word to add.
+     * @throws  IllegalArgumentException    If <code>word</code> sorts before 
+     *                                      the previous word.
+     * @throws  IllegalStateException       If the DAWG has already been 
+     *                                      written.
+     */
+    public void add(String word) {
+        if (this.finished) {
+            throw new IllegalStateException("DAWG has already been written.");
+        }
+        int order = word.compareTo(this.previous);
+        if (order < 0) {
+            throw new IllegalArgumentException("Words must be added in order: "
+                + word + " came after " + this.previous);
+        } else if (order == 0 || word.length() == 0) {
+            return;
+        }
+        int common = 0;
+        State state = this.root;
+        while (common < word.length() && common < this.previous.length()
+                && word.charAt(common) == this.previous.charAt(common)) {
+            state = state.lastChild();
+            common++;
+        }
+        if (state.hasChildren()) {
+            replaceOrRegister(state);
+        }
+        for (int i = common; i < word.length(); i++) {
+            char c = word.charAt(i);
+            this.alphabet.add(Character.valueOf(c));
+            State child = new State();
+            state.addChild(c, child);
+            state = child;
+        }
+        state.terminal = true;
+        this.previous = word;
+        this.wordCount++;
+    }
+
+    /**
+     * Minimizes what remains of the graph and writes it out in the format read 
+     * by <code>Dawg</code>.
+     *
+     * @param   out                     <code>OutputStream</code> to write to.
+     * @throws  IOException             If there is any problem writing.
+     * @throws  IllegalStateException   If the words use more distinct letters 
+     *                                  or need more edges than the format can 
+     *                                  hold.
+     */
+    public void write(OutputStream out) throws IOException {
+        if (! this.finished && this.root.hasChildren()) {
+            replaceOrRegister(this.root);
+        }
+        this.finished = true;
+        if (this.alphabet.size() > Dawg.MAX_ALPHABET) {
+            throw new IllegalStateException("Too many distinct letters (" 
+                + this.alphabet.size() + ") for a DAWG.");
+        }
+        char[] letters = new char[this.alphabet.size()];
+        int i = 0;
+        for (Character c : this.alphabet) {
+            letters[i++] = c.charValue();
+        }
+        
+        // Lay out the edge lists of every distinct state breadth first.  
+        // Offset 0 is left unused so that it can mean "no edges".
+        Map<State, Integer> offsets = new IdentityHashMap<State, Integer>();
+        List<State> order = new ArrayList<State>();
+        int edgeCount = 1;
+        if (this.root.hasChildren()) {
+            offsets.put(this.root, Integer.valueOf(edgeCount));
+            order.add(this.root);
+            edgeCount += this.root.size;
+        }
+        for (int j = 0; j < order.size(); j++) {
+            State state = order.get(j);
+            for (int k = 0; k < state.size; k++) {
+                State child = state.children[k];
+                if (child.hasChildren() && ! offsets.containsKey(child)) {
+                    offsets.put(child, Integer.valueOf(edgeCount));
+                    order.add(child);
+                    edgeCount += child.size;
+                }
+            }
+        }
+        if (edgeCount > Dawg.CHILD_MASK) {
+            throw new IllegalStateException("Too many edges (" + edgeCount 
+                + ") for a DAWG.");
+        }
+        
+        DataOutputStream data = new DataOutputStream(
+            new BufferedOutputStream(out));
+        data.writeInt(Dawg.MAGIC);
+        data.writeInt(Dawg.VERSION);
+        data.writeInt(this.wordCount);
+        data.writeInt(edgeCount);
+        data.writeInt(order.isEmpty() ? 0 : 1);
+        data.writeInt(letters.length);
+        for (int j = 0; j < letters.length; j++) {
+            data.writeChar(letters[j]);
+        }
+        data.writeInt(0);
+        for (int j = 0; j < order.size(); j++) {
+            State state = order.get(j);
+            for (int k = 0; k < state.size; k++) {
+                State child = state.children[k];
+                int code = Arrays.binarySearch(letters, state.labels[k]) + 1;
+                int edge = (code << Dawg.CODE_SHIFT);
+                if (k == state.size - 1) {
+                    edge |= Dawg.LAST_EDGE;
+                }
+                if (child.terminal) {
+                    edge |= Dawg.END_OF_WORD;
+                }
+                if (child.hasChildren()) {
+                    edge |= offsets.get(child).intValue();
+                }
+                data.writeInt(edge);
+            }
+        }
+        data.flush();
+    }
+
+    // Replaces the last child of state with an equivalent registered state if
+    // there is one, otherwise registers it.  Children are dealt with first so 
+    // that states can be compared on the identity of their children.
+    private void replaceOrRegister(State state) {
+        State child = state.lastChild();
+        if (child.hasChildren()) {
+            replaceOrRegister(child);
+        }
+        State existing = this.register.get(child);
+        if (existing != null) {
+            state.children[state.size - 1] = existing;
+        } else {
+            this.register.put(child, child);
+        }
+    }
+
+    /**
+     * Builds a DAWG from a word list with one word per line.
+     *
+     * @param   args        Path of the word list and path of the DAWG to 
+     *                      write.
+     * @throws  IOException If there is any problem reading or writing.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java " + DawgBuilder.class.getName()
+                + " wordlist dawgfile");
+            System.exit(1);
+        }
+        List<String> words = new ArrayList<String>();
+        BufferedReader in = new BufferedReader(new InputStreamReader(
+            new FileInputStream(args[0])));
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                words.add(line.trim().toUpperCase());
+            }
+        } finally {
+            in.close();
+        }
+        Collections.sort(words);
+        DawgBuilder builder = new DawgBuilder();
+        for (String word : words) {
+            builder.add(word);
+        }
+        OutputStream out = new FileOutputStream(args[1]);
+        try {
+            builder.write(out);
+        } finally {
+            out.close();
+        }
+        System.out.println("Wrote " + builder.wordCount + " words to " 
+            + args[1]);
+    }
+
+    private static class State {
+
+        private char[] labels = new char[2];
+        private State[] children = new State[2];
+        private int size = 0;
+        private boolean terminal = false;
+
+        private boolean hasChildren() {
+            return (this.size > 0);
+        }
+
+        private State lastChild() {
+            return this.children[this.size - 1];
+        }
+
+        private void addChild(char c, State child) {
+            if (this.size == this.labels.length) {
+                this.labels = Arrays.copyOf(this.labels, this.size * 2);
+                this.children = Arrays.copyOf(this.children, this.size * 2);
+            }
+            this.labels[this.size] = c;
+            this.children[this.size] = child;
+            this.size++;
+        }
+
+        public boolean equals(Object o) {
+            if (! (o instanceof State)) {
+                return false;
+            }
+            State state = (State) o;
+            if (state.terminal != this.terminal || state.size != this.size) {
+                return false;
+            }
+            for (int i = 0; i < this.size; i++) {
+                if (state.labels[i] != this.labels[i] 
+                        || state.children[i] != this.children[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public int hashCode() {
+            int result = (this.terminal ? 1 : 0);
+            for (int i = 0; i < this.size; i++) {
+                result = 37 * result + this.labels[i];
+                result = 37 * result + System.identityHashCode(
+                    this.children[i]);
+            }
+            return result;
+        }
+    }
+}
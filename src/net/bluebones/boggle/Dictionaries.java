@@ -0,0 +1,454 @@
+/*
+ * Dictionaries
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reads and builds <code>Dictionary</code>s.  A dictionary can be read from a 
+ * plain word list or from a prebuilt DAWG (see <code>DawgBuilder</code>) and 
+ * held by any of these backends:
+ * <br /><br />
+ * <code>hash</code> - hash sets of the words and their prefixes.  Quick but 
+ * large.<br />
+ * <code>sorted</code> - one sorted array, binary searched.  Small but every 
+ * lookup costs O(log n) word comparisons rather than one step per 
+ * letter.<br />
+ * <code>trie</code> - a prefix tree.  One step per letter.<br />
+ * <code>dawg</code> - a minimized word graph read straight from its binary 
+ * form.  One step per letter and the smallest of all, and the only one that 
+ * can be memory-mapped.<br />
+ * <code>offheap</code> - the words and a hash table of their prefixes in 
+ * direct buffers outside the Java heap.  For very large lexicons, which 
+ * would otherwise make garbage collection pause for longer.
+ * <br /><br />
+ * The backend is chosen with the <code>BACKEND_PROPERTY</code> system 
+ * property.  Left unset, word lists are held in a trie and DAWGs as they are.
+ * Run this class to compare the backends on a word list.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     Dictionary
+ */
+public class Dictionaries {
+
+    /** System property naming the backend to hold dictionaries in. */
+    public static final String BACKEND_PROPERTY = "boggle.dictionary";
+
+    /** Backend of hash sets. */
+    public static final String HASH = "hash";
+    /** Backend of a sorted array. */
+    public static final String SORTED = "sorted";
+    /** Backend of a prefix tree. */
+    public static final String TRIE = "trie";
+    /** Backend of a minimized word graph. */
+    public static final String DAWG = "dawg";
+    /** Backend of a hash table outside the Java heap. */
+    public static final String OFF_HEAP = "offheap";
+
+    /** Checksum standing for an unknown dictionary. */
+    public static final long NO_CHECKSUM = 0;
+
+    // 64 bit FNV-1a.
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final String[] BACKENDS 
+        = new String[] { HASH, SORTED, TRIE, DAWG, OFF_HEAP };
+
+    private Dictionaries() {}
+
+    /**
+     * Gets the backend named by the <code>BACKEND_PROPERTY</code> system 
+     * property.
+     *
+     * @return  <code>String</code> backend or <code>null</code> if none is 
+     *          set.
+     * @throws  IllegalArgumentException    If the property names no known 
+     *                                      backend.
+     */
+    public static String backend() {
+        String backend = System.getProperty(BACKEND_PROPERTY);
+        if (backend != null) {
+            checkBackend(backend);
+        }
+        return backend;
+    }
+
+    /**
+     * Reads a word list, one word per line, into the backend named by the 
+     * <code>BACKEND_PROPERTY</code> system property.
+     *
+     * @param   f                       File to read.
+     * @return                          <code>Dictionary</code>.
+     * @throws  FileNotFoundException   If the file cannot be found.
+     * @throws  IOException             If there is any problem reading the 
+     *                                  file.
+     */
+    public static Dictionary readWords(File f) throws FileNotFoundException,
+            IOException {
+        return readWords(f, backend());
+    }
+
+    /**
+     * Reads a word list, one word per line, into the specified backend.
+     *
+     * @param   f                       File to read.
+     * @param   backend                 <code>String</code> backend or 
+     *                                  <code>null</code> for a trie.
+     * @return                          <code>Dictionary</code>.
+     * @throws  FileNotFoundException   If the file cannot be found.
+     * @throws  IOException             If there is any problem reading the 
+     *                                  file.
+     */
+    public static Dictionary readWords(File f, String backend) 
+            throws FileNotFoundException, IOException {
+        if (! f.exists()) {
+            throw new FileNotFoundException("Could not find " 
+                + f.getAbsolutePath());
+        }
+        InputStream is = new FileInputStream(f);
+        try {
+            return readWords(is, backend);
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Reads a word list, one word per line, into the backend named by the 
+     * <code>BACKEND_PROPERTY</code> system property.
+     *
+     * @param   is          InputStream to read the words from.
+     * @return              <code>Dictionary</code>.
+     * @throws  IOException If there is any problem reading the words.
+     */
+    public static Dictionary readWords(InputStream is) throws IOException {
+        return readWords(is, backend());
+    }
+
+    /**
+     * Reads a word list, one word per line, into the specified backend.
+     *
+     * @param   is          InputStream to read the words from.
+     * @param   backend     <code>String</code> backend or <code>null</code> 
+     *                      for a trie.
+     * @return              <code>Dictionary</code>.
+     * @throws  IOException If there is any problem reading the words.
+     */
+    public static Dictionary readWords(InputStream is, String backend) 
+            throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(is));
+        List<String> words = new ArrayList<String>();
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.length() > 0) {
+                words.add(line);
+            }
+        }
+        return build(words.iterator(), backend);
+    }
+
+    /**
+     * Reads a DAWG as written by <code>DawgBuilder</code> into the backend 
+     * named by the <code>BACKEND_PROPERTY</code> system property.
+     *
+     * @param   is          InputStream to read the DAWG from.
+     * @return              <code>Dictionary</code>.
+     * @throws  IOException If there is any problem reading the DAWG.
+     */
+    public static Dictionary readDawg(InputStream is) throws IOException {
+        return readDawg(is, backend());
+    }
+
+    /**
+     * Reads a DAWG as written by <code>DawgBuilder</code> into the specified 
+     * backend.
+     *
+     * @param   is          InputStream to read the DAWG from.
+     * @param   backend     <code>String</code> backend or <code>null</code> 
+     *                      to keep the DAWG.
+     * @return              <code>Dictionary</code>.
+     * @throws  IOException If there is any problem reading the DAWG.
+     */
+    public static Dictionary readDawg(InputStream is, String backend) 
+            throws IOException {
+        return convert(new IndexedDictionary(Dawg.read(is)), backend);
+    }
+
+    /**
+     * Gets a <code>Dictionary</code> that answers lookups directly from a 
+     * memory-mapped DAWG file as written by <code>DawgBuilder</code>.  Nothing 
+     * is read onto the heap so every process on a machine mapping the same 
+     * file shares one copy of it in the operating system's page cache.  If 
+     * the <code>BACKEND_PROPERTY</code> system property names some other 
+     * backend the words are copied into that instead.
+     *
+     * @param   f                       DAWG file to map.
+     * @return                          <code>Dictionary</code>.
+     * @throws  FileNotFoundException   If the file cannot be found.
+     * @throws  IOException             If there is any problem mapping the 
+     *                                  file or it is not a DAWG.
+     */
+    public static Dictionary mapDawg(File f) throws FileNotFoundException,
+            IOException {
+        if (! f.exists()) {
+            throw new FileNotFoundException("Could not find " 
+                + f.getAbsolutePath());
+        }
+        FileChannel channel = new RandomAccessFile(f, "r").getChannel();
+        try {
+            // The mapping stays valid after the channel is closed.
+            return convert(new IndexedDictionary(new Dawg(channel.map(
+                FileChannel.MapMode.READ_ONLY, 0, channel.size()))), 
+                backend());
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Gets a copy of the specified dictionary held in another backend.
+     *
+     * @param   dictionary  <code>Dictionary</code> to copy.
+     * @param   backend     <code>String</code> backend or <code>null</code> 
+     *                      to keep <code>dictionary</code> as it is.
+     * @return              <code>Dictionary</code>, <code>dictionary</code> 
+     *                      itself if it is already held in 
+     *                      <code>backend</code>.
+     * @throws  IllegalArgumentException    If <code>backend</code> is not a 
+     *                                      known backend.
+     */
+    public static Dictionary convert(Dictionary dictionary, String backend) {
+        if (backend == null || backend.equals(backendOf(dictionary))) {
+            return dictionary;
+        }
+        return build(dictionary.iterator(), backend);
+    }
+
+    /**
+     * Builds a <code>Dictionary</code> of the specified words.
+     *
+     * @param   words       <code>Iterator</code> over the words in any order.
+     * @param   backend     <code>String</code> backend or <code>null</code> 
+     *                      for a trie.
+     * @return              <code>Dictionary</code>.
+     * @throws  IllegalArgumentException    If <code>backend</code> is not a 
+     *                                      known backend.
+     */
+    public static Dictionary build(Iterator<String> words, String backend) {
+        if (backend == null || backend.equals(TRIE)) {
+            Trie trie = new Trie();
+            while (words.hasNext()) {
+                trie.add(words.next());
+            }
+            return new IndexedDictionary(trie);
+        } else if (backend.equals(HASH)) {
+            HashWordIndex index = new HashWordIndex();
+            while (words.hasNext()) {
+                index.add(words.next());
+            }
+            return new IndexedDictionary(index);
+        }
+        checkBackend(backend);
+        List<String> sorted = sortedWords(words);
+        if (backend.equals(SORTED)) {
+            return new IndexedDictionary(new SortedWordIndex(
+                sorted.toArray(new String[sorted.size()])));
+        } else if (backend.equals(OFF_HEAP)) {
+            return new IndexedDictionary(new OffHeapWordIndex(sorted));
+        }
+        DawgBuilder builder = new DawgBuilder();
+        for (Iterator<String> iter = sorted.iterator(); iter.hasNext(); ) {
+            builder.add(iter.next());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            builder.write(out);
+            return new IndexedDictionary(
+                new Dawg(ByteBuffer.wrap(out.toByteArray())));
+        } catch (IOException e) {
+            // Cannot happen writing to and reading from memory.
+            throw new IllegalStateException("Could not build DAWG: " + e, e);
+        }
+    }
+
+    /**
+     * Works out a checksum of the specified words (a 64 bit FNV-1a hash of 
+     * them one after another), for implementing 
+     * <code>Dictionary.checksum</code>.
+     *
+     * @param   words   <code>Iterator</code> over the words in ascending 
+     *                  order.
+     * @return          <code>long</code> checksum, never 
+     *                  <code>NO_CHECKSUM</code>.
+     */
+    public static long checksum(Iterator<String> words) {
+        long hash = FNV_OFFSET;
+        while (words.hasNext()) {
+            String word = words.next();
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+                hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            }
+            // End of word, which no char can be mistaken for.
+            hash = (hash ^ 0x100) * FNV_PRIME;
+        }
+        return (hash == NO_CHECKSUM ? 1 : hash);
+    }
+
+    private static List<String> sortedWords(Iterator<String> words) {
+        List<String> sorted = new ArrayList<String>();
+        while (words.hasNext()) {
+            sorted.add(words.next());
+        }
+        Collections.sort(sorted);
+        List<String> distinct = new ArrayList<String>(sorted.size());
+        String previous = null;
+        for (Iterator<String> iter = sorted.iterator(); iter.hasNext(); ) {
+            String word = iter.next();
+            if (! word.equals(previous)) {
+                distinct.add(word);
+            }
+            previous = word;
+        }
+        return distinct;
+    }
+
+    private static String backendOf(Dictionary dictionary) {
+        if (! (dictionary instanceof IndexedDictionary)) {
+            return null;
+        }
+        WordIndex index = ((IndexedDictionary) dictionary).index();
+        if (index instanceof HashWordIndex) {
+            return HASH;
+        } else if (index instanceof SortedWordIndex) {
+            return SORTED;
+        } else if (index instanceof Trie) {
+            return TRIE;
+        } else if (index instanceof Dawg) {
+            return DAWG;
+        } else if (index instanceof OffHeapWordIndex) {
+            return OFF_HEAP;
+        }
+        return null;
+    }
+
+    private static void checkBackend(String backend) {
+        for (int i = 0; i < BACKENDS.length; i++) {
+            if (BACKENDS[i].equals(backend)) {
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Unknown dictionary backend: " 
+            + backend);
+    }
+
+    /**
+     * Commandline test and comparison of the backends.  Each backend is 
+     * built from the specified word list (or the dictionary this machine 
+     * uses), checked and then timed looking up words and prefixes.
+     *
+     * @param   args                    Commandline arguments, optionally the 
+     *                                  word list to use.
+     * @throws  IOException             If the words cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        Dictionary source = (args.length > 0 ? readWords(new File(args[0]), 
+            TRIE) : Boggle.readDictionary());
+        List<String> words = new ArrayList<String>(source.size());
+        for (Iterator<String> iter = source.iterator(); iter.hasNext(); ) {
+            words.add(iter.next());
+        }
+        // Half real words, half the same words with a letter changed.
+        Random random = new Random(1);
+        char[][] probes = new char[20000][];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = words.get(random.nextInt(words.size())).toCharArray();
+            if (i % 2 == 1) {
+                probes[i][random.nextInt(probes[i].length)] 
+                    = (char) ('A' + random.nextInt(26));
+            }
+        }
+        for (int i = 0; i < BACKENDS.length; i++) {
+            long before = usedMemory();
+            long start = System.currentTimeMillis();
+            Dictionary dictionary = build(words.iterator(), BACKENDS[i]);
+            long built = System.currentTimeMillis();
+            long memory = usedMemory() - before;
+            System.out.println(BACKENDS[i] + ": " + dictionary.size() 
+                + " words, built in " + (built - start) + "ms, about " 
+                + (memory / 1024) + "KB");
+            System.out.println("  Should be true, false, true, false, 5: "
+                + dictionary.isValid("hello") + ", " 
+                + dictionary.isValid("jfkal") + ", " 
+                + dictionary.hasPrefix("hel") + ", " 
+                + dictionary.hasPrefix("jfk") + ", " 
+                + dictionary.longestPrefix("hellozz"));
+            int found = 0;
+            start = System.nanoTime();
+            for (int pass = 0; pass < 10; pass++) {
+                for (int j = 0; j < probes.length; j++) {
+                    for (int length = 1; length <= probes[j].length; 
+                            length++) {
+                        if (! dictionary.hasPrefix(probes[j], length)) {
+                            break;
+                        }
+                    }
+                    if (dictionary.isValid(probes[j], probes[j].length)) {
+                        found++;
+                    }
+                }
+            }
+            System.out.println("  " + found + " lookups found, " 
+                + ((System.nanoTime() - start) / 1000000) + "ms");
+            dictionary = null;
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -23,89 +23,92 @@
 
 package net.bluebones.boggle;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.InputStreamReader;
-import java.io.IOException;
-import java.util.HashSet;
-import java.util.Set;
-
 /**
- * Represents a dictionary in which words can be checked for validity.
+ * Represents a dictionary in which words can be checked for validity.  As 
+ * well as whole words a dictionary answers whether any word starts with a 
+ * given sequence of letters, so that callers searching for words (such as 
+ * <code>WordFinder</code>) can give up on paths that cannot lead anywhere.
+ * <br /><br />
+ * Several implementations with different memory and speed tradeoffs are 
+ * available from <code>Dictionaries</code>.  All of them are safe to share 
+ * between threads once built.
  *
  * @author  Thomas David Baker <bakert@gmail.com>
- * @version 0.3 $Revision: 1.4 $
+ * @version 0.3 $Revision: 1.5 $
+ * @see     Dictionaries
  */
-public class Dictionary {
+public interface Dictionary extends Iterable<String> {
 
-    private Set<String> words = new HashSet<String>();
+    /**
+     * Determines if the specified word is valid (in the dictionary).
+     *
+     * @param   word    Word to check, in any case.
+     * @return          <code>boolean</code>, <code>true</code> if the word is 
+     *                  in the dictionary.
+     */
+    boolean isValid(CharSequence word);
     
     /**
-     * Initialises a Dictionary using the specified file.
+     * Determines if the word made up of the first <code>length</code> chars 
+     * of <code>word</code> is valid.  Unlike 
+     * <code>isValid(CharSequence)</code> the letters must already be in upper 
+     * case (see <code>WordNormalizer</code>).  This is the method to use when 
+     * checking many candidates held in one buffer.
      *
-     * @param   f                       File to use for the dictionary.
-     * @throws  FileNotFoundException   If the file cannot be found.
-     * @throws  IOException             If there is any problem reading the 
-     *                                  dictionary.
+     * @param   word    <code>char[]</code> holding the word to check.
+     * @param   length  <code>int</code> length of the word.
+     * @return          <code>boolean</code>, <code>true</code> if the word is 
+     *                  in the dictionary.
      */
-    public Dictionary(File f) throws FileNotFoundException, IOException {
-        if (! f.exists()) {
-            throw new FileNotFoundException("Could not find " 
-                + f.getAbsolutePath());
-        }
-        BufferedReader in = new BufferedReader(new FileReader(f));
-        loadDictionary(in);
-    }
+    boolean isValid(char[] word, int length);
     
-    //TODO should all throw DictionaryUnavailableException?
+    /**
+     * Determines if any word in the dictionary starts with the specified 
+     * prefix.  A word counts as a prefix of itself.
+     *
+     * @param   prefix  Prefix to check, in any case.
+     * @return          <code>boolean</code>, <code>true</code> if at least one 
+     *                  word in the dictionary starts with <code>prefix</code>.
+     */
+    boolean hasPrefix(CharSequence prefix);
     
     /**
-     * Initialises a <code>Dictionary</code> using the specified 
-     * <code>InputStream</code>.
+     * Determines if any word in the dictionary starts with the first 
+     * <code>length</code> chars of <code>prefix</code>, which must already be 
+     * in upper case.
      *
-     * @param   is          InputStream to initialise the dictionary from.
-     * @throws  IOException If there is any problem reading the dictionary.
+     * @param   prefix  <code>char[]</code> holding the prefix to check.
+     * @param   length  <code>int</code> length of the prefix.
+     * @return          <code>boolean</code>, <code>true</code> if at least one 
+     *                  word in the dictionary starts with the prefix.
      */
-    public Dictionary(java.io.InputStream is) throws IOException {
-        BufferedReader in = new BufferedReader(new InputStreamReader(is));
-        loadDictionary(in);
-    }
+    boolean hasPrefix(char[] prefix, int length);
     
-    private void loadDictionary(BufferedReader in) throws IOException {
-        String line;
-        while ((line = in.readLine()) != null) {
-            this.words.add(line.trim());
-        }
-    }
+    /**
+     * Gets the length of the longest leading part of <code>s</code> that 
+     * some word in the dictionary starts with.
+     *
+     * @param   s   <code>CharSequence</code> to check, in any case.
+     * @return      <code>int</code> number of leading characters of 
+     *              <code>s</code> that are a prefix of a dictionary word.
+     */
+    int longestPrefix(CharSequence s);
     
     /**
-     * Determines if the specified word is valid (in the dictionary).
+     * Gets the number of words in the dictionary.
      *
-     * @param   word    Word to check.
-     * @return          <code>boolean</code>, <code>true</code> if the word is 
-     *                  in the dictionary.
+     * @return  <code>int</code> number of words.
      */
-    public boolean isValid(String word) {
-        return this.words.contains(word.toUpperCase());
-    }
+    int size();
     
     /**
-     * Simple commandline test of Dictionary.
+     * Gets a checksum of the words in the dictionary.  Dictionaries with the 
+     * same words have the same checksum whichever backend holds them, so two 
+     * machines can tell whether they would mark words the same way without 
+     * sending each other the words.
      *
-     * @param   args                Commandline arguments.
-     * @throws  FileNotFoundException   If the file cannot be found.
-     * @throws  IOException             If there is any problem reading the 
-     *                                  dictionary.
+     * @return  <code>long</code> checksum, never 
+     *          <code>Dictionaries.NO_CHECKSUM</code>.
      */
-    public static void main(String[] args) throws FileNotFoundException, 
-            IOException {
-        System.out.println("Should be true, false, true, false, true");
-        System.out.println(Boggle.dictionary.isValid("hello"));
-        System.out.println(Boggle.dictionary.isValid("jfkal"));
-        System.out.println(Boggle.dictionary.isValid("Hello"));
-        System.out.println(Boggle.dictionary.isValid("FAOI)"));
-        System.out.println(Boggle.dictionary.isValid("HELLO"));
-    }
+    long checksum();
 }
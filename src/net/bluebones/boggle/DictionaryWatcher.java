@@ -0,0 +1,135 @@
+/*
+ * DictionaryWatcher
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Thread that watches the dictionary file and, when it changes, reads it 
+ * again and makes the new words the dictionary for games started from then 
+ * on.  Games already in progress keep the dictionary they started with (see 
+ * <code>Boggle.currentDictionary</code>) so nothing waits while a new 
+ * dictionary is read.
+ * <br /><br />
+ * A change is only acted on once the file has kept the same size and 
+ * modification time for a whole check, so that a file still being written is 
+ * not read half done.  A memory-mapped DAWG should be replaced by renaming a 
+ * new file over it rather than by writing into it as the old mapping may 
+ * still be in use.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     Boggle#dictionaryFile()
+ */
+public class DictionaryWatcher implements Runnable {
+
+    /** Default number of milliseconds between checks of the file. */
+    public static final long DEFAULT_INTERVAL = 5000;
+
+    private File file;
+    private long interval;
+    private volatile boolean watching = true;
+    // Size and modification time of the file as last read, and as seen at 
+    // the previous check.
+    private long loadedModified;
+    private long loadedLength;
+    private long seenModified;
+    private long seenLength;
+
+    /**
+     * Initialises a new <code>DictionaryWatcher</code>.  The file as it is 
+     * now is taken to be the one already loaded.
+     *
+     * @param   file        <code>File</code> to watch.
+     * @param   interval    <code>long</code> milliseconds between checks.
+     */
+    public DictionaryWatcher(File file, long interval) {
+        this.file = file;
+        this.interval = interval;
+        this.loadedModified = this.seenModified = file.lastModified();
+        this.loadedLength = this.seenLength = file.length();
+    }
+
+    /**
+     * Starts watching on a new daemon thread.
+     */
+    public void start() {
+        Thread thread = new Thread(this, "Dictionary watcher");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Stops watching after the current check.
+     */
+    public void stop() {
+        this.watching = false;
+    }
+
+    /**
+     * Main action of the <code>DictionaryWatcher</code>.  Checks the file 
+     * every <code>interval</code> milliseconds until stopped.
+     */
+    public void run() {
+        while (this.watching) {
+            try {
+                Thread.sleep(this.interval);
+            } catch (InterruptedException e) {
+                Boggle.debug(e.toString());
+                return;
+            }
+            check();
+        }
+    }
+
+    private void check() {
+        long modified = this.file.lastModified();
+        long length = this.file.length();
+        boolean settled = (modified == this.seenModified 
+            && length == this.seenLength);
+        this.seenModified = modified;
+        this.seenLength = length;
+        if (modified == 0 || ! settled || (modified == this.loadedModified 
+                && length == this.loadedLength)) {
+            return;
+        }
+        Boggle.debug("Dictionary " + this.file + " has changed, reloading.");
+        try {
+            Dictionary dictionary = Boggle.readDictionary();
+            dictionary.checksum();
+            Boggle.setDictionary(dictionary);
+            Boggle.debug("Reloaded dictionary of " + dictionary.size() 
+                + " words.");
+        } catch (IOException e) {
+            // Keep the dictionary we have.  Try again when the file changes.
+            Boggle.debug("Could not reload dictionary: " + e);
+        } catch (RuntimeException e) {
+            Boggle.debug("Could not reload dictionary: " + e);
+        }
+        this.loadedModified = modified;
+        this.loadedLength = length;
+    }
+}
@@ -25,6 +25,7 @@ package net.bluebones.boggle;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Represents a Boggle die (with letters on each face).
@@ -143,4 +144,46 @@ public class Die {
     public char getRandomFace() {
         return this.getFace(((int) (Math.random() * this.faces.length)));
     }
+    
+    /**
+     * Gets a face from this die at random using the specified source of 
+     * randomness.
+     *
+     * @param   random  <code>Random</code> to roll with.
+     * @return          char value found on a random face of this die.
+     */
+    public char getRandomFace(Random random) {
+        return this.getFace(random.nextInt(this.faces.length));
+    }
+    
+    /**
+     * Shakes the supplied dice into a square board and rolls each one, using 
+     * the specified source of randomness.  Unlike <code>rollDice</code> this 
+     * does not depend on the board size currently set in 
+     * <code>Boggle</code> so it can be used to make boards of any size 
+     * side by side.
+     *
+     * @param   dice    Dice to shake.  There must be a square number of them.
+     * @param   random  <code>Random</code> to shake and roll with.
+     * @return          <code>char[][]</code> of the letters face up.
+     * @throws  IllegalArgumentException    If the number of dice is not 
+     *                                      square.
+     */
+    public static char[][] rollLetters(Die[] dice, Random random) {
+        int side = (int) Math.round(Math.sqrt(dice.length));
+        if (side * side != dice.length) {
+            throw new IllegalArgumentException(dice.length 
+                + " dice cannot make a square board.");
+        }
+        Die[] shaken = dice.clone();
+        char[][] letters = new char[side][side];
+        for (int i = shaken.length - 1; i >= 0; i--) {
+            int j = random.nextInt(i + 1);
+            Die die = shaken[j];
+            shaken[j] = shaken[i];
+            shaken[i] = die;
+            letters[i / side][i % side] = die.getRandomFace(random);
+        }
+        return letters;
+    }
 }
@@ -0,0 +1,840 @@
+/*
+ * GameCodec
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package net.bluebones.boggle;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.rmi.NoSuchObjectException;
+import java.rmi.server.RemoteObject;
+import java.rmi.server.RemoteServer;
+import java.rmi.server.UID;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Compact binary form of <code>Round</code>s, <code>Turn</code>s, 
+ * <code>Rubber</code>s and <code>RubberDelta</code>s, for sending to other 
+ * players and for storing.  Those classes serialize themselves this way so 
+ * RMI and the NIO transport use it without being asked.
+ * <br /><br />
+ * Every word in a round is written once, in a table sorted so that each word
+ * need only give what follows the part it shares with the word before.  
+ * What became of the words is a bitset over the table for each verdict, and
+ * each turn is a list of places in the table.  Players are written once 
+ * each however many times they appear, by name and by the id of their 
+ * client unless it is an RMI stub, and numbers are written in as few bytes 
+ * as will hold them, seven bits to a byte.
+ * <br /><br />
+ * Everything starts with <code>MAGIC</code> and the format version, which 
+ * goes up whenever the format changes.  Versions this class does not know 
+ * are refused.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     Round
+ * @see     Rubber
+ */
+public final class GameCodec {
+
+    /** First bytes of everything encoded. */
+    public static final byte[] MAGIC = new byte[] { 'B', 'g' };
+    
+    /** Version of the format written. */
+    public static final int FORMAT_VERSION = 1;
+
+    // What is encoded.
+    private static final int ROUND = 1;
+    private static final int TURN = 2;
+    private static final int RUBBER = 3;
+    private static final int RUBBER_DELTA = 4;
+    
+    // How a player's client is written.
+    private static final int NO_CLIENT = 0;
+    private static final int ID_CLIENT = 1;
+    private static final int SERIALIZED_CLIENT = 2;
+    
+    // How a turn's words are written.
+    private static final int WORD_LIST = 0;
+    private static final int WORD_BITSET = 1;
+    
+    // Bytes read from a stream at a time.
+    private static final int READ_BUFFER_SIZE = 8192;
+    
+    // Verdicts in the order their bitsets are written.
+    private static final int[] VERDICTS = new int[] { Round.NOT_ON_BOARD, 
+        Round.TOO_SHORT, Round.MISSPELT, Round.DUPLICATE, Round.UNIQUE };
+    
+    private GameCodec() {}
+    
+    /**
+     * Encodes a <code>Round</code>, <code>Turn</code>, <code>Rubber</code> or
+     * <code>RubberDelta</code>.
+     *
+     * @param   o               <code>Object</code> to encode.
+     * @return                  <code>byte[]</code> encoded form.
+     * @throws  IOException     If a player's client cannot be written.
+     * @throws  IllegalArgumentException    If <code>o</code> is of any other 
+     *                                      class.
+     */
+    public static byte[] encode(Object o) throws IOException {
+        Writer writer = new Writer();
+        if (o instanceof Round) {
+            writer.round((Round) o);
+        } else if (o instanceof Turn) {
+            writer.turn((Turn) o);
+        } else if (o instanceof Rubber) {
+            writer.rubber(((Rubber) o).copy());
+        } else if (o instanceof RubberDelta) {
+            writer.rubberDelta((RubberDelta) o);
+        } else {
+            throw new IllegalArgumentException("Cannot encode " + o);
+        }
+        return writer.toByteArray();
+    }
+    
+    /**
+     * Decodes what <code>encode</code> encoded.
+     *
+     * @param   bytes           <code>byte[]</code> encoded form.
+     * @return                  <code>Round</code>, <code>Turn</code>, 
+     *                          <code>Rubber</code> or 
+     *                          <code>RubberDelta</code>.
+     * @throws  IOException     If <code>bytes</code> are not in a format 
+     *                          version this class knows or are corrupt.
+     */
+    public static Object decode(byte[] bytes) throws IOException {
+        try {
+            return new Reader(bytes).read();
+        } catch (RuntimeException e) {
+            // Bad lengths and indexes in corrupt input.
+            IOException ioe = new IOException("Corrupt game data: " + e);
+            ioe.initCause(e);
+            throw ioe;
+        }
+    }
+    
+    /**
+     * Writes an encoded object to a stream preceded by its length, so that 
+     * several can be stored one after another.
+     *
+     * @param   o               <code>Object</code> to write, as for 
+     *                          <code>encode</code>.
+     * @param   out             <code>OutputStream</code> to write to.
+     * @throws  IOException     If writing fails.
+     */
+    public static void write(Object o, OutputStream out) throws IOException {
+        byte[] bytes = encode(o);
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+        data.flush();
+    }
+    
+    /**
+     * Reads the next object written by <code>write</code>.
+     *
+     * @param   in              <code>InputStream</code> to read from.
+     * @return                  <code>Object</code> as for 
+     *                          <code>decode</code>.
+     * @throws  EOFException    If there are no more.
+     * @throws  IOException     If reading fails or what is read is corrupt.
+     */
+    public static Object read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int length = data.readInt();
+        if (length < 0) {
+            throw new IOException("Corrupt game data length " + length);
+        }
+        // Read as the bytes arrive rather than trusting length with an array 
+        // up front.
+        ByteArrayOutputStream bytes 
+            = new ByteArrayOutputStream(Math.min(length, READ_BUFFER_SIZE));
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        while (length > 0) {
+            int n = data.read(buffer, 0, Math.min(length, buffer.length));
+            if (n < 0) {
+                throw new EOFException("Game data cut short.");
+            }
+            bytes.write(buffer, 0, n);
+            length -= n;
+        }
+        return decode(bytes.toByteArray());
+    }
+    
+    /**
+     * Gets what to serialize in place of <code>o</code>.  For the 
+     * <code>writeReplace</code> methods of the classes this encodes.
+     *
+     * @param   o                       <code>Object</code> being serialized.
+     * @return                          <code>Serializable</code>.
+     * @throws  ObjectStreamException   If <code>o</code> cannot be encoded.
+     */
+    static Object replace(Object o) throws ObjectStreamException {
+        try {
+            return new Encoded(encode(o));
+        } catch (IOException e) {
+            throw new InvalidObjectException("Cannot encode " + o + ": " + e);
+        }
+    }
+    
+    // Serialized in place of the classes encoded here and read back as them.
+    private static class Encoded implements Serializable {
+        
+        private byte[] bytes;
+        
+        private Encoded(byte[] bytes) {
+            this.bytes = bytes;
+        }
+        
+        private Object readResolve() throws ObjectStreamException {
+            try {
+                return decode(this.bytes);
+            } catch (IOException e) {
+                throw new InvalidObjectException(e.getMessage());
+            }
+        }
+    }
+    
+    // Writes exported clients as their stubs, as RMI would.
+    private static class StubOutputStream extends ObjectOutputStream {
+
+        private StubOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        protected Object replaceObject(Object o) {
+            if (o instanceof RemoteServer) {
+                try {
+                    return RemoteObject.toStub((RemoteServer) o);
+                } catch (NoSuchObjectException e) {
+                    // Not exported so send it as it is.
+                }
+            }
+            return o;
+        }
+    }
+    
+    private static class Writer {
+        
+        private ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private Map<NamedClient, Integer> players 
+            = new IdentityHashMap<NamedClient, Integer>();
+        private List<NamedClient> playerList = new ArrayList<NamedClient>();
+        private int kind;
+        
+        // Players are written ahead of the body but only known once it has
+        // been written, so the body is written separately.
+        byte[] toByteArray() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(
+                this.body.size() + 16 * this.playerList.size() + 8);
+            out.write(MAGIC);
+            out.write(FORMAT_VERSION);
+            out.write(this.kind);
+            List<IClient> others = new ArrayList<IClient>();
+            ByteArrayOutputStream table = new ByteArrayOutputStream();
+            writeInt(table, this.playerList.size());
+            for (Iterator<NamedClient> iter = this.playerList.iterator(); 
+                    iter.hasNext(); ) {
+                NamedClient namedClient = iter.next();
+                writeString(table, namedClient.name());
+                IClient client = namedClient.client();
+                if (client == null) {
+                    table.write(NO_CLIENT);
+                } else if (id(client) != null) {
+                    table.write(ID_CLIENT);
+                    id(client).write(new DataOutputStream(table));
+                } else {
+                    table.write(SERIALIZED_CLIENT);
+                    writeInt(table, others.size());
+                    others.add(client);
+                }
+            }
+            // Clients that can only be serialized, usually RMI stubs, go 
+            // together so that their class descriptions are written once.
+            if (others.isEmpty()) {
+                writeInt(out, 0);
+            } else {
+                ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+                ObjectOutputStream objects = new StubOutputStream(serialized);
+                objects.writeObject(others.toArray(new IClient[others.size()]));
+                objects.close();
+                writeInt(out, serialized.size());
+                serialized.writeTo(out);
+            }
+            table.writeTo(out);
+            this.body.writeTo(out);
+            return out.toByteArray();
+        }
+        
+        // Clients not reachable over RMI are known to the other players by 
+        // an id alone, and read back as proxies with that id.
+        private static UID id(IClient client) {
+            if (client instanceof NioClientProxy) {
+                return ((NioClientProxy) client).id();
+            }
+            if (client instanceof Client && ! ((Client) client).isExported()) {
+                return ((Client) client).id();
+            }
+            return null;
+        }
+        
+        private void player(NamedClient namedClient) {
+            Integer index = this.players.get(namedClient);
+            if (index == null) {
+                index = Integer.valueOf(this.playerList.size());
+                this.players.put(namedClient, index);
+                this.playerList.add(namedClient);
+            }
+            writeInt(this.body, index.intValue());
+        }
+        
+        void round(Round round) throws IOException {
+            this.kind = ROUND;
+            char[][] letters = round.getLetters();
+            writeInt(this.body, letters.length);
+            writeInt(this.body, (letters.length == 0 ? 0 : letters[0].length));
+            for (int x = 0; x < letters.length; x++) {
+                for (int y = 0; y < letters[x].length; y++) {
+                    writeInt(this.body, letters[x][y]);
+                }
+            }
+            scoring(round.getScoring());
+            writeInt(this.body, round.getMaximumScore());
+            writeInt(this.body, round.getPossibleWords());
+            
+            Map<String, Integer> verdicts = round.verdicts();
+            String[] words = words(verdicts.keySet());
+            Map<String, Integer> ids = new HashMap<String, Integer>();
+            for (int i = 0; i < words.length; i++) {
+                ids.put(words[i], Integer.valueOf(i));
+            }
+            for (int v = 0; v < VERDICTS.length; v++) {
+                boolean[] bits = new boolean[words.length];
+                for (int i = 0; i < words.length; i++) {
+                    bits[i] = (verdicts.get(words[i]).intValue() 
+                        == VERDICTS[v]);
+                }
+                writeBits(this.body, bits);
+            }
+            
+            Turn[] turns = round.getTurns();
+            writeInt(this.body, turns.length);
+            for (int i = 0; i < turns.length; i++) {
+                player(turns[i].namedClient());
+                String[] turnWords = turns[i].getWords();
+                int[] turnIds = new int[turnWords.length];
+                for (int j = 0; j < turnWords.length; j++) {
+                    turnIds[j] = ids.get(turnWords[j]).intValue();
+                }
+                wordIds(turnIds, words.length);
+            }
+        }
+        
+        // Writes places in a table of size words, as a list or a bitset 
+        // whichever is the shorter.
+        private void wordIds(int[] ids, int size) throws IOException {
+            Arrays.sort(ids);
+            ByteArrayOutputStream list = new ByteArrayOutputStream();
+            writeInt(list, ids.length);
+            int previous = 0;
+            for (int i = 0; i < ids.length; i++) {
+                writeInt(list, ids[i] - previous);
+                previous = ids[i];
+            }
+            if (list.size() <= (size + 7) / 8) {
+                this.body.write(WORD_LIST);
+                list.writeTo(this.body);
+            } else {
+                this.body.write(WORD_BITSET);
+                boolean[] bits = new boolean[size];
+                for (int i = 0; i < ids.length; i++) {
+                    bits[ids[i]] = true;
+                }
+                writeBits(this.body, bits);
+            }
+        }
+        
+        void turn(Turn turn) {
+            this.kind = TURN;
+            player(turn.namedClient());
+            this.body.write(turn.hasBeenMarked() ? 1 : 0);
+            scoring(turn.getScoring());
+            Set<String> all = new HashSet<String>(Arrays.asList(
+                turn.getWords()));
+            // Only a marked turn has its words sorted.
+            List<Set<String>> categories = turn.getCategories();
+            for (int v = 0; v < categories.size(); v++) {
+                all.addAll(categories.get(v));
+            }
+            String[] words = words(all);
+            Set<String> own = new HashSet<String>(Arrays.asList(
+                turn.getWords()));
+            boolean[] bits = new boolean[words.length];
+            for (int i = 0; i < words.length; i++) {
+                bits[i] = own.contains(words[i]);
+            }
+            writeBits(this.body, bits);
+            for (int v = 0; v < categories.size(); v++) {
+                Set<String> category = categories.get(VERDICTS[v]);
+                for (int i = 0; i < words.length; i++) {
+                    bits[i] = category.contains(words[i]);
+                }
+                writeBits(this.body, bits);
+            }
+        }
+        
+        void rubber(Rubber rubber) throws IOException {
+            this.kind = RUBBER;
+            rubber.id().write(new DataOutputStream(this.body));
+            writeLong(this.body, rubber.getVersion());
+            scores(rubber.scores());
+        }
+        
+        void rubberDelta(RubberDelta delta) throws IOException {
+            this.kind = RUBBER_DELTA;
+            delta.rubberId().write(new DataOutputStream(this.body));
+            writeLong(this.body, delta.fromVersion());
+            writeLong(this.body, delta.toVersion());
+            scores(delta.scores());
+            writeInt(this.body, delta.removed().size());
+            for (Iterator<NamedClient> iter = delta.removed().iterator(); 
+                    iter.hasNext(); ) {
+                player(iter.next());
+            }
+        }
+        
+        private void scores(Map<NamedClient, Integer> scores) {
+            writeInt(this.body, scores.size());
+            for (Iterator<Map.Entry<NamedClient, Integer>> iter 
+                    = scores.entrySet().iterator(); iter.hasNext(); ) {
+                Map.Entry<NamedClient, Integer> entry = iter.next();
+                player(entry.getKey());
+                writeSignedInt(this.body, entry.getValue().intValue());
+            }
+        }
+        
+        private void scoring(Scoring scoring) {
+            int[] points = scoring.pointsByLength();
+            writeInt(this.body, points.length);
+            for (int i = 0; i < points.length; i++) {
+                writeInt(this.body, points[i]);
+            }
+        }
+        
+        // Writes the words in sorted order, each as the length it shares with
+        // the one before and the rest.
+        private String[] words(Set<String> set) {
+            String[] words = new TreeSet<String>(set).toArray(
+                new String[set.size()]);
+            writeInt(this.body, words.length);
+            String previous = "";
+            for (int i = 0; i < words.length; i++) {
+                int common = 0;
+                int n = Math.min(previous.length(), words[i].length());
+                while (common < n 
+                        && previous.charAt(common) == words[i].charAt(common)) {
+                    common++;
+                }
+                writeInt(this.body, common);
+                writeString(this.body, words[i].substring(common));
+                previous = words[i];
+            }
+            return words;
+        }
+    }
+    
+    private static class Reader {
+        
+        private DataInputStream in;
+        private NamedClient[] players;
+        
+        Reader(byte[] bytes) {
+            this.in = new DataInputStream(new ByteArrayInputStream(bytes));
+        }
+        
+        Object read() throws IOException {
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (this.in.readByte() != MAGIC[i]) {
+                    throw new IOException("Not game data.");
+                }
+            }
+            int version = this.in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Cannot read game data format version " 
+                    + version + ", only " + FORMAT_VERSION + ".");
+            }
+            int kind = this.in.readUnsignedByte();
+            players();
+            switch (kind) {
+                case ROUND:
+                    return round();
+                case TURN:
+                    return turn();
+                case RUBBER:
+                    return rubber();
+                case RUBBER_DELTA:
+                    return rubberDelta();
+                default:
+                    throw new IOException("Unknown kind of game data " + kind);
+            }
+        }
+        
+        private void players() throws IOException {
+            IClient[] others = new IClient[0];
+            int serialized = readCount(this.in);
+            if (serialized > 0) {
+                byte[] bytes = new byte[serialized];
+                this.in.readFully(bytes);
+                ObjectInputStream objects 
+                    = new NioEndpoint.AllowListInputStream(
+                    new ByteArrayInputStream(bytes));
+                try {
+                    others = (IClient[]) objects.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Cannot read client: " + e);
+                } finally {
+                    objects.close();
+                }
+            }
+            this.players = new NamedClient[readCount(this.in)];
+            for (int i = 0; i < this.players.length; i++) {
+                String name = readString(this.in);
+                IClient client;
+                int how = this.in.readUnsignedByte();
+                switch (how) {
+                    case NO_CLIENT:
+                        client = null;
+                        break;
+                    case ID_CLIENT:
+                        client = new NioClientProxy(UID.read(this.in));
+                        break;
+                    case SERIALIZED_CLIENT:
+                        client = others[readInt(this.in)];
+                        break;
+                    default:
+                        throw new IOException("Unknown kind of client " + how);
+                }
+                this.players[i] = new NamedClient(name, client);
+            }
+        }
+        
+        private NamedClient player() throws IOException {
+            return this.players[readInt(this.in)];
+        }
+        
+        private Round round() throws IOException {
+            int rows = readCount(this.in);
+            int columns = readCount(this.in);
+            if ((long) rows * columns > this.in.available()) {
+                throw new IOException("Board of " + rows + " by " + columns 
+                    + " is bigger than the data.");
+            }
+            char[][] letters = new char[rows][columns];
+            for (int x = 0; x < letters.length; x++) {
+                for (int y = 0; y < letters[x].length; y++) {
+                    letters[x][y] = (char) readInt(this.in);
+                }
+            }
+            Scoring scoring = scoring();
+            int maximumScore = readInt(this.in);
+            int possibleWords = readInt(this.in);
+            
+            String[] words = words();
+            Map<String, Integer> verdicts = new HashMap<String, Integer>();
+            for (int v = 0; v < VERDICTS.length; v++) {
+                boolean[] bits = readBits(this.in, words.length);
+                for (int i = 0; i < words.length; i++) {
+                    if (bits[i]) {
+                        verdicts.put(words[i], Integer.valueOf(VERDICTS[v]));
+                    }
+                }
+            }
+            
+            Turn[] turns = new Turn[readCount(this.in)];
+            for (int i = 0; i < turns.length; i++) {
+                NamedClient namedClient = player();
+                int[] ids = wordIds(words.length);
+                String[] turnWords = new String[ids.length];
+                for (int j = 0; j < ids.length; j++) {
+                    turnWords[j] = words[ids[j]];
+                }
+                turns[i] = new Turn(namedClient, turnWords);
+            }
+            return new Round(turns, letters, scoring, verdicts, maximumScore, 
+                possibleWords);
+        }
+        
+        private int[] wordIds(int size) throws IOException {
+            int how = this.in.readUnsignedByte();
+            if (how == WORD_LIST) {
+                int[] ids = new int[readCount(this.in)];
+                int previous = 0;
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = previous + readInt(this.in);
+                    previous = ids[i];
+                }
+                return ids;
+            } else if (how == WORD_BITSET) {
+                boolean[] bits = readBits(this.in, size);
+                int count = 0;
+                for (int i = 0; i < size; i++) {
+                    count += (bits[i] ? 1 : 0);
+                }
+                int[] ids = new int[count];
+                count = 0;
+                for (int i = 0; i < size; i++) {
+                    if (bits[i]) {
+                        ids[count++] = i;
+                    }
+                }
+                return ids;
+            }
+            throw new IOException("Unknown kind of word list " + how);
+        }
+        
+        private Turn turn() throws IOException {
+            NamedClient namedClient = player();
+            boolean marked = (this.in.readUnsignedByte() != 0);
+            Scoring scoring = scoring();
+            String[] words = words();
+            boolean[] own = readBits(this.in, words.length);
+            List<String> turnWords = new ArrayList<String>();
+            for (int i = 0; i < words.length; i++) {
+                if (own[i]) {
+                    turnWords.add(words[i]);
+                }
+            }
+            Turn turn = new Turn(namedClient, 
+                turnWords.toArray(new String[turnWords.size()]));
+            turn.setScoring(scoring);
+            if (marked) {
+                for (int v = 0; v < VERDICTS.length; v++) {
+                    boolean[] bits = readBits(this.in, words.length);
+                    for (int i = 0; i < words.length; i++) {
+                        if (bits[i]) {
+                            add(turn, VERDICTS[v], words[i]);
+                        }
+                    }
+                }
+                turn.setMarked(true);
+            }
+            return turn;
+        }
+        
+        private Rubber rubber() throws IOException {
+            UID id = UID.read(this.in);
+            long version = readLong(this.in);
+            return new Rubber(id, version, scores());
+        }
+        
+        private RubberDelta rubberDelta() throws IOException {
+            UID id = UID.read(this.in);
+            long from = readLong(this.in);
+            long to = readLong(this.in);
+            Map<NamedClient, Integer> scores = scores();
+            Set<NamedClient> removed = new HashSet<NamedClient>();
+            int count = readCount(this.in);
+            for (int i = 0; i < count; i++) {
+                removed.add(player());
+            }
+            return new RubberDelta(id, from, to, scores, removed);
+        }
+        
+        private Map<NamedClient, Integer> scores() throws IOException {
+            Map<NamedClient, Integer> scores 
+                = new HashMap<NamedClient, Integer>();
+            int count = readCount(this.in);
+            for (int i = 0; i < count; i++) {
+                NamedClient namedClient = player();
+                scores.put(namedClient, Integer.valueOf(readSignedInt(this.in)));
+            }
+            return scores;
+        }
+        
+        private Scoring scoring() throws IOException {
+            int[] points = new int[readCount(this.in)];
+            for (int i = 0; i < points.length; i++) {
+                points[i] = readInt(this.in);
+            }
+            return new Scoring(points);
+        }
+        
+        private String[] words() throws IOException {
+            String[] words = new String[readCount(this.in)];
+            String previous = "";
+            for (int i = 0; i < words.length; i++) {
+                int common = readInt(this.in);
+                words[i] = previous.substring(0, common) 
+                    + readString(this.in);
+                previous = words[i];
+            }
+            return words;
+        }
+    }
+    
+    private static void add(Turn turn, int verdict, String word) {
+        switch (verdict) {
+            case Round.NOT_ON_BOARD:
+                turn.addNotOnBoardWord(word);
+                break;
+            case Round.TOO_SHORT:
+                turn.addTooShortWord(word);
+                break;
+            case Round.MISSPELT:
+                turn.addMisspeltWord(word);
+                break;
+            case Round.DUPLICATE:
+                turn.addDuplicateWord(word);
+                break;
+            default:
+                turn.addUniqueWord(word);
+        }
+    }
+    
+    // Numbers go seven bits to a byte, lowest first, with the top bit set on 
+    // all but the last byte.
+    
+    private static void writeLong(OutputStream out, long n) {
+        try {
+            while ((n & ~0x7fL) != 0) {
+                out.write((int) ((n & 0x7f) | 0x80));
+                n >>>= 7;
+            }
+            out.write((int) n);
+        } catch (IOException e) {
+            // Only ever written to memory.
+            throw new IllegalStateException(e.toString());
+        }
+    }
+    
+    private static void writeInt(OutputStream out, int n) {
+        writeLong(out, n & 0xffffffffL);
+    }
+    
+    // Small negative numbers are as short as small positive ones.
+    private static void writeSignedInt(OutputStream out, int n) {
+        writeInt(out, (n << 1) ^ (n >> 31));
+    }
+    
+    private static long readLong(DataInputStream in) throws IOException {
+        long n = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            n |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return n;
+            }
+        }
+        throw new IOException("Number too long.");
+    }
+    
+    private static int readInt(DataInputStream in) throws IOException {
+        long n = readLong(in);
+        if (n > 0xffffffffL) {
+            throw new IOException("Number too big: " + n);
+        }
+        return (int) n;
+    }
+    
+    // Reads how many of something follow.  Each takes at least a byte so 
+    // there cannot be more than there are bytes left, and checking that 
+    // stops corrupt data asking for huge arrays.
+    private static int readCount(DataInputStream in) throws IOException {
+        int n = readInt(in);
+        if (n < 0 || n > in.available()) {
+            throw new IOException("Count of " + (n & 0xffffffffL) 
+                + " is more than the " + in.available() + " bytes left.");
+        }
+        return n;
+    }
+    
+    private static int readSignedInt(DataInputStream in) throws IOException {
+        int n = readInt(in);
+        return (n >>> 1) ^ -(n & 1);
+    }
+    
+    private static void writeString(OutputStream out, String s) {
+        writeInt(out, s.length());
+        for (int i = 0; i < s.length(); i++) {
+            writeInt(out, s.charAt(i));
+        }
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        char[] chars = new char[readCount(in)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) readInt(in);
+        }
+        return new String(chars);
+    }
+    
+    private static void writeBits(OutputStream out, boolean[] bits) {
+        for (int i = 0; i < bits.length; i += 8) {
+            int b = 0;
+            for (int j = 0; j < 8 && i + j < bits.length; j++) {
+                if (bits[i + j]) {
+                    b |= 1 << j;
+                }
+            }
+            try {
+                out.write(b);
+            } catch (IOException e) {
+                throw new IllegalStateException(e.toString());
+            }
+        }
+    }
+    
+    private static boolean[] readBits(DataInputStream in, int size) 
+            throws IOException {
+        boolean[] bits = new boolean[size];
+        for (int i = 0; i < size; i += 8) {
+            int b = in.readUnsignedByte();
+            for (int j = 0; j < 8 && i + j < size; j++) {
+                bits[i + j] = ((b & (1 << j)) != 0);
+            }
+        }
+        return bits;
+    }
+}
@@ -54,6 +54,7 @@ public class GameDialog extends BoggleDialog implements ActionListener {
     private static JTextField name;
     private static JTextField address;
     private static JTextField port;
+    private static JTextField language;
     private static boolean ok = false;
     private boolean isHost;
     
@@ -107,7 +108,8 @@ public class GameDialog extends BoggleDialog implements ActionListener {
             ? prefs.getInt("host.port", 1099) 
             : prefs.getInt("join.port", 1099));
         this.setValue(new GameInfo(prefs.get("name", "Player@" + myAddress), 
-            new HostInfo(address, port)));
+            new HostInfo(address, port), 
+            prefs.get("host.language", LanguagePacks.defaultLanguage())));
         
         GridLayout layout = new GridLayout(2, 1);
         this.getContentPane().setLayout(layout);
@@ -183,6 +185,24 @@ public class GameDialog extends BoggleDialog implements ActionListener {
         layout.setConstraints(port, c);
         mainPanel.add(port);
         
+        if (isHost) {
+            JLabel languageLabel = new JLabel("Language: ");
+            c.gridx = 0;
+            c.gridy = 4;
+            c.gridwidth = 2;
+            c.insets = new Insets(10, 10, 0, 10);
+            layout.setConstraints(languageLabel, c);
+            mainPanel.add(languageLabel);
+            
+            this.language = new JTextField(20);
+            this.language.setText(GameDialog.value.language());
+            c.gridx = 0;
+            c.gridy = 5;
+            c.insets = new Insets(0, 10, 10, 10);
+            layout.setConstraints(language, c);
+            mainPanel.add(language);
+        }
+        
         return mainPanel;
     }
     
@@ -226,8 +246,14 @@ public class GameDialog extends BoggleDialog implements ActionListener {
                     JOptionPane.ERROR_MESSAGE);
                 return;
             }
+            String language = (this.isHost 
+                ? this.language.getText().trim() 
+                : LanguagePacks.defaultLanguage());
+            if (language.length() == 0) {
+                language = LanguagePacks.ENGLISH;
+            }
             GameDialog.value 
-                = new GameInfo(name, new HostInfo(address, port));
+                = new GameInfo(name, new HostInfo(address, port), language);
             Preferences prefs 
                 = Preferences.userNodeForPackage(this.getClass());
             // IP is in this name and that may change so don't store in prefs.
@@ -237,6 +263,7 @@ public class GameDialog extends BoggleDialog implements ActionListener {
             prefs.putInt("port", port);
             if (this.isHost) {
                 prefs.putInt("host.port", port);
+                prefs.put("host.language", language);
             } else {
                 prefs.put("address", address);
                 prefs.putInt("join.port", port);
@@ -36,17 +36,53 @@ public class GameId implements Serializable {
 
     private String serverAddress;
     private UID uid;
+    private long dictionaryChecksum;
+    private int minimumWordLength;
 
     /**
-     * Initializes a new <code>GameId</code>.
+     * Initializes a new <code>GameId</code> for a game with no known 
+     * dictionary.
      *
      * @param   serverAddress   <code>String</code> IP or other address of host.
      * @param   uid             <code>UID</code> game identifier.
      */
     public GameId(String serverAddress, UID uid) {
+        this(serverAddress, uid, Dictionaries.NO_CHECKSUM);
+    }
+
+    /**
+     * Initializes a new <code>GameId</code>.
+     *
+     * @param   serverAddress       <code>String</code> IP or other address of 
+     *                              host.
+     * @param   uid                 <code>UID</code> game identifier.
+     * @param   dictionaryChecksum  <code>long</code> checksum of the 
+     *                              dictionary the game will be marked with.
+     */
+    public GameId(String serverAddress, UID uid, long dictionaryChecksum) {
+        this(serverAddress, uid, dictionaryChecksum, 
+            BoardSolver.MINIMUM_WORD_LENGTH);
+    }
+
+    /**
+     * Initializes a new <code>GameId</code> for a game whose scoring counts 
+     * words of <code>minimumWordLength</code> letters or more.
+     *
+     * @param   serverAddress       <code>String</code> IP or other address of 
+     *                              host.
+     * @param   uid                 <code>UID</code> game identifier.
+     * @param   dictionaryChecksum  <code>long</code> checksum of the 
+     *                              dictionary the game will be marked with.
+     * @param   minimumWordLength   <code>int</code> length of the shortest 
+     *                              word that counts.
+     */
+    public GameId(String serverAddress, UID uid, long dictionaryChecksum, 
+            int minimumWordLength) {
         //TODO docs for non public items.
         this.serverAddress = serverAddress;
         this.uid = uid;
+        this.dictionaryChecksum = dictionaryChecksum;
+        this.minimumWordLength = minimumWordLength;
     }
 
     /**
@@ -67,6 +103,39 @@ public class GameId implements Serializable {
         return this.uid;
     }
     
+    /**
+     * Gets the checksum of the dictionary the game will be marked with.
+     *
+     * @return  <code>long</code> checksum or 
+     *          <code>Dictionaries.NO_CHECKSUM</code> if unknown.
+     */
+    public long dictionaryChecksum() {
+        return this.dictionaryChecksum;
+    }
+    
+    /**
+     * Gets the length of the shortest word that counts in the game, as set 
+     * by the scoring of the host's language pack.
+     *
+     * @return  <code>int</code> length.
+     */
+    public int minimumWordLength() {
+        return this.minimumWordLength;
+    }
+    
+    /**
+     * Determines if the specified dictionary holds exactly the words the game 
+     * will be marked with, in which case it can be used to check words 
+     * without asking the host.
+     *
+     * @param   dictionary  <code>Dictionary</code> to check.
+     * @return              <code>boolean</code>.
+     */
+    public boolean markedWith(Dictionary dictionary) {
+        return (this.dictionaryChecksum != Dictionaries.NO_CHECKSUM
+            && dictionary.checksum() == this.dictionaryChecksum);
+    }
+    
     /**
      * Determines if this <code>GameId</code> is the same as the 
      * <code>Object</code> specified.
@@ -122,6 +191,7 @@ public class GameId implements Serializable {
      */
     public String toString() {
         return this.getClass().getName() + " (Server Address: " 
-            + serverAddress() + ", UID: " + this.uid() + ")";
+            + serverAddress() + ", UID: " + this.uid() + ", Dictionary: " 
+            + Long.toHexString(this.dictionaryChecksum) + ")";
     }
 }
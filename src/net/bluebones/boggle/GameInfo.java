@@ -34,16 +34,31 @@ public class GameInfo {
     
     private String name = "hi";
     private HostInfo hostInfo;
+    private String language;
 
     /**
-     * Initialises new GameInfo with the specified values.
+     * Initialises new GameInfo with the specified values, in the default 
+     * language.
      *
      * @param   name        Name of the player.
      * @param   hostInfo    HostInfo of the host of the game.
      */
     public GameInfo(String name, HostInfo hostInfo) {
+        this(name, hostInfo, LanguagePacks.defaultLanguage());
+    }
+
+    /**
+     * Initialises new GameInfo with the specified values.
+     *
+     * @param   name        Name of the player.
+     * @param   hostInfo    HostInfo of the host of the game.
+     * @param   language    Name of the <code>LanguagePack</code> to host 
+     *                      games in.
+     */
+    public GameInfo(String name, HostInfo hostInfo, String language) {
         this.name = name;
         this.hostInfo = hostInfo;
+        this.language = language;
     }
     
     /**
@@ -64,6 +79,15 @@ public class GameInfo {
         return this.hostInfo;
     }
     
+    /**
+     * Name of the language pack games are hosted in.  Only used by hosts.
+     *
+     * @return  Name of a <code>LanguagePack</code>.
+     */
+    public String language() {
+        return this.language;
+    }
+    
     /**
      * Simple commandline test of GameInfo.
      *
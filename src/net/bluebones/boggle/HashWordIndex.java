@@ -0,0 +1,88 @@
+/*
+ * HashWordIndex
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Word index made of two hash sets, one of the words and one of every prefix 
+ * of every word.  The quickest to build and to look whole words up in but it 
+ * takes by far the most memory and creates a <code>String</code> per lookup.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     Dictionaries
+ */
+class HashWordIndex implements WordIndex {
+
+    private Set<String> words = new HashSet<String>();
+    private Set<String> prefixes = new HashSet<String>();
+
+    /**
+     * Adds the specified word to this index.
+     *
+     * @param   word    <code>String</code> word to add.
+     */
+    void add(String word) {
+        if (this.words.add(word)) {
+            for (int i = word.length(); i > 0; i--) {
+                if (! this.prefixes.add(word.substring(0, i))) {
+                    // Shorter prefixes were added along with this one.
+                    break;
+                }
+            }
+        }
+    }
+
+    public boolean contains(char[] word, int length) {
+        return this.words.contains(new String(word, 0, length));
+    }
+
+    public boolean hasPrefix(char[] prefix, int length) {
+        return (length == 0 
+            || this.prefixes.contains(new String(prefix, 0, length)));
+    }
+
+    public int longestPrefix(char[] s, int length) {
+        int i = 0;
+        while (i < length && hasPrefix(s, i + 1)) {
+            i++;
+        }
+        return i;
+    }
+
+    public int size() {
+        return this.words.size();
+    }
+
+    public Iterator<String> iterator() {
+        String[] sorted 
+            = this.words.toArray(new String[this.words.size()]);
+        Arrays.sort(sorted);
+        return Arrays.asList(sorted).iterator();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Heartbeat
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package net.bluebones.boggle;
+
+import java.rmi.RemoteException;
+
+/**
+ * Thread that keeps a player's place with a host by sending it a heartbeat 
+ * every second, for players without a <code>ConnectionMonitor</code> to do 
+ * it for them.  Stops when the player leaves the host or the host stops 
+ * answering.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     Server#heartbeat(IClient)
+ */
+class Heartbeat implements Runnable {
+
+    /** Milliseconds between heartbeats. */
+    static final long INTERVAL_MILLIS = 1000;
+
+    private Player player;
+    private IServer server;
+
+    /**
+     * Initializes a new <code>Heartbeat</code>.
+     *
+     * @param   player  <code>Player</code> that is a client of 
+     *                  <code>server</code>.
+     * @param   server  <code>IServer</code> to send heartbeats to.
+     */
+    Heartbeat(Player player, IServer server) {
+        this.player = player;
+        this.server = server;
+    }
+    
+    /** Sends heartbeats until the player is no longer a client. */
+    public void run() {
+        while (this.player.getRemoteServer() == this.server) {
+            try {
+                Thread.sleep(INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (this.player.connecting() 
+                    || this.player.getRemoteServer() != this.server) {
+                continue;
+            }
+            try {
+                if (! this.server.heartbeat(this.player.getClient())) {
+                    Boggle.debug("No longer a client of " + this.server);
+                    this.player.hostConnectionLost();
+                }
+            } catch (RemoteException e) {
+                Boggle.debug("Lost connection to " + this.server + ": " + e);
+                this.player.hostConnectionLost();
+            }
+        }
+    }
+}
@@ -33,8 +33,18 @@ package net.bluebones.boggle;
  */
 public class HostInfo {
     
+    /** Transport of Java RMI. */
+    public static final String RMI = "rmi";
+    
+    /** Transport of framed calls over non-blocking sockets. */
+    public static final String NIO = "nio";
+    
+    /** System property naming the transport to use, RMI if unset. */
+    public static final String TRANSPORT_PROPERTY = "boggle.transport";
+    
     private String address;
     private int port;
+    private String transport;
 
     /**
      * Initialises a HostInfo with the specified values.
@@ -43,9 +53,27 @@ public class HostInfo {
      * @param   port    Port number of host.
      */
     public HostInfo(String address, int port) {
+        this(address, port, System.getProperty(TRANSPORT_PROPERTY, RMI));
+    }
+    
+    /**
+     * Initialises a HostInfo with the specified values.
+     *   
+     * @param   address     Address of host.
+     * @param   port        Port number of host.
+     * @param   transport   <code>RMI</code> or <code>NIO</code>.
+     * @throws  IllegalArgumentException    If <code>transport</code> is 
+     *                                      neither.
+     */
+    public HostInfo(String address, int port, String transport) {
         //TODO validation?
+        if (! RMI.equals(transport) && ! NIO.equals(transport)) {
+            throw new IllegalArgumentException("Unknown transport: " 
+                + transport);
+        }
         this.address = address;
         this.port = port;
+        this.transport = transport;
     }
     
     /**
@@ -66,6 +94,25 @@ public class HostInfo {
         return port;
     }
     
+    /**
+     * Gets the transport the host uses.
+     *
+     * @return  <code>RMI</code> or <code>NIO</code>.
+     */
+    public String transport() {
+        return this.transport;
+    }
+    
+    /**
+     * Whether the host uses the NIO transport rather than RMI, in which case 
+     * it listens on <code>port</code> itself and no RMI registry is needed.
+     *
+     * @return  <code>boolean</code>.
+     */
+    public boolean usesNio() {
+        return NIO.equals(this.transport);
+    }
+    
     /**
      * Gets a simple representation of the host address in the following
      * format: <code>address:port</code>.
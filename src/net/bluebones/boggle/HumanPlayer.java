@@ -23,9 +23,12 @@
 
 package net.bluebones.boggle;
 
+import java.io.IOException;
 import java.net.UnknownHostException;
 import java.rmi.RemoteException;
 import java.util.Collection;
+import java.util.concurrent.Future;
+import javax.swing.SwingUtilities;
 
 /**
  * Represents the entire client side of Boggle.
@@ -39,6 +42,9 @@ public class HumanPlayer extends Player {
     private IServer remoteServer;
     private Server localServer;
     private int port;
+    // Whether a network game will start once the dictionary has loaded.  
+    // Only used on the event thread.
+    private boolean waitingForDictionary = false;
 
     /** Initialises a new HumanPlayer. */
     public HumanPlayer() {
@@ -66,30 +72,49 @@ public class HumanPlayer extends Player {
     
     /**
      * Starts a network game, setting up a Server on this host or using the 
-     * existing one.
+     * existing one.  If the dictionary is still loading the game starts once 
+     * it has loaded, so the event thread is never kept waiting for it.
      */
     public void startNetworkGame() {
         
-        if (Boggle.dictionary == null) {
-            this.ui.problem("No dictionary found.  Cannot run game without "
-                + "a dictionary at " + Boggle.DICT_PATH);
+        final Future<Dictionary> dictionary = Boggle.currentDictionary();
+        if (dictionary != null && ! dictionary.isDone()) {
+            if (! this.waitingForDictionary) {
+                this.waitingForDictionary = true;
+                Thread thread = new Thread(new Runnable() {
+                    public void run() {
+                        waitForDictionary(dictionary);
+                    }
+                }, "Dictionary waiter");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            return;
+        }
+        try {
+            Boggle.dictionary(dictionary);
+        } catch (DictionaryUnavailableException e) {
+            Boggle.debug(e.toString());
+            noDictionary();
             return;
         }
         
         try {
-            if (getRegistry() == null) {
+            HostInfo localHostInfo = new HostInfo("127.0.0.1", 1099);
+            if (getRegistry() == null && ! localHostInfo.usesNio()) {
                 createRegistry(1099);
             }
             if (getClient() == null) {
                 if (getHostInfo() == null) {
-                    setHostInfo(new HostInfo("127.0.0.1", 1099));
+                    setHostInfo(localHostInfo);
                 }
                 //TODO are we happy with this name for a local game?
-                setClient(new Client(this, "Player@127.0.0.1"));
+                setClient(new Client(this, "Player@127.0.0.1", 
+                    ! localHostInfo.usesNio()));
             }
             if (this.localServer == null) {
                 // If hasn't set self up as a host do this to allow solo play.
-                HostInfo hostInfo = new HostInfo("127.0.0.1", 1099);
+                HostInfo hostInfo = localHostInfo;
                 this.localServer = new Server(this, getClient(), hostInfo);
                 setHostInfo(hostInfo);
                 Boggle.debug("Setting conn with remoteServer = " 
@@ -112,6 +137,36 @@ public class HumanPlayer extends Player {
         }
     }
     
+    // Waits off the event thread for dictionary to load then goes back to the 
+    // event thread to start the game or report that it cannot.
+    private void waitForDictionary(Future<Dictionary> dictionary) {
+        Boggle.debug("Waiting for the dictionary to start a network game.");
+        boolean loaded;
+        try {
+            Boggle.dictionary(dictionary);
+            loaded = true;
+        } catch (DictionaryUnavailableException e) {
+            Boggle.debug(e.toString());
+            loaded = false;
+        }
+        final boolean start = loaded;
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                waitingForDictionary = false;
+                if (start) {
+                    startNetworkGame();
+                } else {
+                    noDictionary();
+                }
+            }
+        });
+    }
+    
+    private void noDictionary() {
+        this.ui.problem("No dictionary found.  Cannot run game without "
+            + "a dictionary at " + Boggle.DICT_PATH);
+    }
+    
     //TODO put all debug messages into a "log" window which can be viewed in a 
     // scrolling window and optionally be saved to file automatically.
     
@@ -138,11 +193,23 @@ public class HumanPlayer extends Player {
         //TODO combine hostGame and joinGame - many similarities.
         HostInfo hostInfo = gameInfo.hostInfo();
         this.remoteServer = null;
+        setRemoteServer(null);
         try {
-            createRegistry(hostInfo.port());
+            if (! hostInfo.usesNio()) {
+                createRegistry(hostInfo.port());
+            }
             setHostInfo(hostInfo);
-            setClient(new Client(this, gameInfo.name()));
+            setClient(new Client(this, gameInfo.name(), ! hostInfo.usesNio()));
+            // Free the port before listening on it again.
+            setLocalServer(null);
             this.localServer = new Server(this, getClient(), hostInfo);
+            try {
+                this.localServer.setLanguage(gameInfo.language());
+            } catch (IOException e) {
+                Boggle.debug("Cannot host in " + gameInfo.language() + ": " 
+                    + e);
+                problem("Cannot play in " + gameInfo.language() + ".");
+            }
             setConnection(ConnectionType.HOST, hostInfo.getSimpleAddr(), 1);
         } catch (RemoteException e) {
             String errMsg = "Could not set up host.";
@@ -173,6 +240,9 @@ public class HumanPlayer extends Player {
      *                  unset.
      */
     public void setLocalServer(Server server) {
+        if (this.localServer != null && this.localServer != server) {
+            this.localServer.close();
+        }
         this.localServer = server;
     }
     
@@ -266,7 +336,14 @@ public class HumanPlayer extends Player {
      */
     public void init(char[][] letters, int timeInSecs) {
         this.ui.resetTimer();
-        this.ui.initWordArea();
+        // Words can only be checked against the dictionary here if it is 
+        // the one the host will mark them with.
+        Dictionary dictionary 
+            = (getClient() == null ? null : getClient().gameDictionary());
+        int minimumWordLength = (getClient() == null 
+            ? BoardSolver.MINIMUM_WORD_LENGTH 
+            : getClient().minimumWordLength());
+        this.ui.initWordArea(letters, dictionary, minimumWordLength);
         this.ui.setBoard(letters);
         this.ui.setTimerMaximum(timeInSecs);
     }
@@ -314,6 +391,12 @@ public class HumanPlayer extends Player {
             sb.append(BR);
             sb.append(BR);
         }
+        summary.append("Maximum possible score was ");
+        summary.append(round.getMaximumScore());
+        summary.append(" (");
+        summary.append(round.getPossibleWords());
+        summary.append(" words)");
+        summary.append(BR);
         this.ui.showResults(summary.toString() + BR + sb.toString());
     }
     
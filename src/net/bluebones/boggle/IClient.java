@@ -80,4 +80,15 @@ public interface IClient extends Remote {
      * @throws  RemoteException If anything goes wrong with the RMI.
      */
     public void setRubber(Rubber rubber) throws RemoteException;
+    
+    /**
+     * Sends what has changed in the rubber since the version the client was 
+     * last sent.
+     *
+     * @param   delta           <code>RubberDelta</code> of the changes.
+     * @throws  RemoteException If anything goes wrong with the RMI, or the 
+     *                          client is missing earlier changes and needs 
+     *                          sending every score.
+     */
+    public void updateRubber(RubberDelta delta) throws RemoteException;
 }
@@ -71,4 +71,16 @@ public interface IServer extends Remote {
      * @throws  RemoteException If there is any problem with the RMI.
      */
     public boolean isClient(IClient client) throws RemoteException;
+    
+    /**
+     * Tells the server the specified client is still there, extending its 
+     * lease.  A client that does not do this often enough is dropped.
+     *
+     * @param   client          Client that is still there.
+     * @return                  boolean of whether the specified client is a 
+     *                          current client of this server, as 
+     *                          <code>isClient</code>.
+     * @throws  RemoteException If there is any problem with the RMI.
+     */
+    public boolean heartbeat(IClient client) throws RemoteException;
 }
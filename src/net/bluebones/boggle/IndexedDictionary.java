@@ -0,0 +1,102 @@
+/*
+ * IndexedDictionary
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.util.Iterator;
+
+/**
+ * <code>Dictionary</code> answering lookups from a <code>WordIndex</code>.  
+ * Upper cases words passed as <code>CharSequence</code>s into a reused 
+ * buffer so that each index only has to deal with <code>char[]</code>s.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     Dictionaries
+ */
+class IndexedDictionary implements Dictionary {
+
+    private WordIndex words;
+    // Worked out the first time it is asked for.
+    private volatile long checksum = Dictionaries.NO_CHECKSUM;
+
+    /**
+     * Initializes a new <code>IndexedDictionary</code> over the specified 
+     * index.
+     *
+     * @param   words   <code>WordIndex</code> to look words up in.
+     */
+    IndexedDictionary(WordIndex words) {
+        this.words = words;
+    }
+
+    /**
+     * Gets the index behind this dictionary.
+     *
+     * @return  <code>WordIndex</code>.
+     */
+    WordIndex index() {
+        return this.words;
+    }
+
+    public boolean isValid(CharSequence word) {
+        char[] chars = WordNormalizer.scratch(word.length());
+        int length = WordNormalizer.upperCase(word, chars);
+        return this.words.contains(chars, length);
+    }
+
+    public boolean isValid(char[] word, int length) {
+        return this.words.contains(word, length);
+    }
+
+    public boolean hasPrefix(CharSequence prefix) {
+        char[] chars = WordNormalizer.scratch(prefix.length());
+        int length = WordNormalizer.upperCase(prefix, chars);
+        return this.words.hasPrefix(chars, length);
+    }
+
+    public boolean hasPrefix(char[] prefix, int length) {
+        return this.words.hasPrefix(prefix, length);
+    }
+
+    public int longestPrefix(CharSequence s) {
+        char[] chars = WordNormalizer.scratch(s.length());
+        int length = WordNormalizer.upperCase(s, chars);
+        return this.words.longestPrefix(chars, length);
+    }
+
+    public int size() {
+        return this.words.size();
+    }
+
+    public long checksum() {
+        if (this.checksum == Dictionaries.NO_CHECKSUM) {
+            this.checksum = Dictionaries.checksum(iterator());
+        }
+        return this.checksum;
+    }
+
+    public Iterator<String> iterator() {
+        return this.words.iterator();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * LanguagePack
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.util.concurrent.Future;
+
+/**
+ * Everything a game needs to be played in one language: the words, the dice
+ * and how words score.  Get packs from <code>LanguagePacks</code> and give
+ * them back when finished with so that packs nobody is using can be thrown
+ * away.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     LanguagePacks
+ */
+public final class LanguagePack {
+
+    private String name;
+    // null for the built in pack, which plays with Boggle's own dictionary
+    // so that it follows any reload.
+    private Future<Dictionary> dictionary;
+    private Die[] dice16;
+    private Die[] dice25;
+    private Scoring scoring;
+
+    LanguagePack(String name, Future<Dictionary> dictionary, Die[] dice16,
+            Die[] dice25, Scoring scoring) {
+        this.name = name;
+        this.dictionary = dictionary;
+        this.dice16 = dice16;
+        this.dice25 = dice25;
+        this.scoring = scoring;
+    }
+
+    /**
+     * Gets the name this pack is known by, such as <code>"en"</code>.
+     *
+     * @return  <code>String</code> name.
+     */
+    public String name() {
+        return this.name;
+    }
+
+    /**
+     * Gets this pack's dictionary as it stands now, which may still be
+     * loading.  See <code>Boggle.currentDictionary</code>.
+     *
+     * @return  <code>Future&lt;Dictionary&gt;</code> to pin for a game.
+     */
+    public Future<Dictionary> currentDictionary() {
+        if (this.dictionary == null) {
+            return Boggle.currentDictionary();
+        }
+        return this.dictionary;
+    }
+
+    /**
+     * Gets the dice to play a board of the specified size with.
+     *
+     * @param   totalDice   <code>int</code> number of dice on the board.
+     * @return              <code>Die[]</code> of <code>totalDice</code>
+     *                      dice.
+     * @throws  IllegalArgumentException    If this pack has no dice for a
+     *                                      board of that size.
+     */
+    public Die[] dice(int totalDice) {
+        if (totalDice == this.dice16.length) {
+            return this.dice16;
+        } else if (totalDice == this.dice25.length) {
+            return this.dice25;
+        }
+        throw new IllegalArgumentException("No " + totalDice + " dice in "
+            + this.name + ".");
+    }
+
+    /**
+     * Gets how words score in this pack's language.
+     *
+     * @return  <code>Scoring</code>.
+     */
+    public Scoring scoring() {
+        return this.scoring;
+    }
+
+    public String toString() {
+        return this.name;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * LanguagePacks
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Registry of the languages games can be played in.  English is built in and
+ * uses the dictionary and dice the rest of the game does.  Any other language
+ * is described by a <code>&lt;name&gt;.properties</code> file, looked for in
+ * the directory named by the <code>boggle.languages</code> system property if
+ * set and otherwise under <code>/resources/lang/</code> on the classpath:
+ * <pre>
+ *     # Word list or DAWG, relative to this file.
+ *     dictionary=fr.txt
+ *     # Faces of each die, one group of letters per die.
+ *     dice16=ETUKNO EVGTIN ...
+ *     dice25=...
+ *     # Points for a word of each length, the last for any longer word.
+ *     points=0,0,0,1,1,2,3,5,11
+ * </pre>
+ * <code>en-short</code>, English that also counts two letter words, is 
+ * bundled as an example.  The host picks the language in the Host Game 
+ * dialog, and each game holds the pack it is played in.
+ * <br /><br />
+ * A pack is loaded the first time it is acquired, its dictionary in the
+ * background.  Once every user has released it a pack is dropped, so a host
+ * keeps only the packs its games are using in memory, and is loaded again if
+ * asked for later.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     LanguagePack
+ */
+public final class LanguagePacks {
+
+    /** Name of the built in English pack. */
+    public static final String ENGLISH = "en";
+
+    /** System property naming the language games are hosted in. */
+    public static final String LANGUAGE_PROPERTY = "boggle.language";
+
+    /**
+     * System property naming a directory of language packs to use instead of
+     * the bundled ones.
+     */
+    public static final String DIRECTORY_PROPERTY = "boggle.languages";
+
+    /** Path on the classpath of the bundled language packs. */
+    public static final String PACK_PATH = "/resources/lang/";
+
+    private static final LanguagePack english = new LanguagePack(ENGLISH,
+        null, Die.dice16, Die.dice25, Scoring.STANDARD);
+
+    // Every pack loaded so far by name.
+    private static Map<String, Entry> packs = new HashMap<String, Entry>();
+
+    private LanguagePacks() {}
+
+    /**
+     * Gets the name of the language to host games in, from the
+     * <code>boggle.language</code> system property.
+     *
+     * @return  <code>String</code> name of a pack.
+     */
+    public static String defaultLanguage() {
+        return System.getProperty(LANGUAGE_PROPERTY, ENGLISH);
+    }
+
+    /**
+     * Gets the built in English pack, which is always there and need not be 
+     * released.
+     *
+     * @return  <code>LanguagePack</code>.
+     */
+    public static LanguagePack english() {
+        return english;
+    }
+
+    /**
+     * Gets the named pack, loading it if need be.  Every call must be matched
+     * by a call to <code>release</code> once the pack is no longer needed.
+     *
+     * @param   name    <code>String</code> name of the pack.
+     * @return          <code>LanguagePack</code>.
+     * @throws  FileNotFoundException   If there is no such pack.
+     * @throws  IOException             If the pack cannot be read or is not
+     *                                  valid.
+     */
+    public static synchronized LanguagePack acquire(String name)
+            throws FileNotFoundException, IOException {
+        if (ENGLISH.equals(name)) {
+            return english;
+        }
+        Entry entry = packs.get(name);
+        if (entry == null) {
+            entry = new Entry();
+            entry.pack = load(name);
+            packs.put(name, entry);
+        }
+        entry.users++;
+        return entry.pack;
+    }
+
+    /**
+     * Gives back a pack got from <code>acquire</code>.  A pack nobody is
+     * using any more is dropped.
+     *
+     * @param   pack    <code>LanguagePack</code> to give back.
+     */
+    public static synchronized void release(LanguagePack pack) {
+        Entry entry = packs.get(pack.name());
+        if (entry == null || entry.pack != pack) {
+            // The built in pack, or one released too many times.
+            return;
+        }
+        if (--entry.users == 0) {
+            Boggle.debug("Nobody is using language pack " + pack.name());
+            packs.remove(pack.name());
+        }
+    }
+
+    // Reads a pack's description and starts its dictionary loading.
+    private static LanguagePack load(final String name)
+            throws FileNotFoundException, IOException {
+        for (int i = 0; i < name.length(); i++) {
+            if (! Character.isLetterOrDigit(name.charAt(i))
+                    && name.charAt(i) != '_' && name.charAt(i) != '-') {
+                throw new FileNotFoundException("No language pack " + name);
+            }
+        }
+        final URL url = packUrl(name + ".properties");
+        if (url == null) {
+            throw new FileNotFoundException("No language pack " + name);
+        }
+        Boggle.debug("Loading language pack " + url);
+        Properties properties = new Properties();
+        InputStream is = url.openStream();
+        try {
+            properties.load(is);
+        } finally {
+            is.close();
+        }
+        final String dictionaryName = property(properties, url, "dictionary");
+        Die[] dice16 = parseDice(property(properties, url, "dice16"), 16, url);
+        Die[] dice25 = parseDice(property(properties, url, "dice25"), 25, url);
+        Scoring scoring;
+        try {
+            scoring = Scoring.parse(property(properties, url, "points"));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Bad points in " + url + ": "
+                + e.getMessage());
+        }
+        FutureTask<Dictionary> dictionary = new FutureTask<Dictionary>(
+            new Callable<Dictionary>() {
+                public Dictionary call() throws IOException {
+                    Dictionary dictionary
+                        = readDictionary(new URL(url, dictionaryName));
+                    dictionary.checksum();
+                    return dictionary;
+                }
+            });
+        Thread thread = new Thread(dictionary, "Dictionary loader ("
+            + name + ")");
+        thread.setDaemon(true);
+        thread.start();
+        return new LanguagePack(name, dictionary, dice16, dice25, scoring);
+    }
+
+    // Where to find a file of the packs, or null if it is not there.
+    private static URL packUrl(String file) throws IOException {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        if (directory != null) {
+            File f = new File(directory, file);
+            return (f.isFile() ? f.toURI().toURL() : null);
+        }
+        return LanguagePacks.class.getResource(PACK_PATH + file);
+    }
+
+    private static String property(Properties properties, URL url,
+            String key) throws IOException {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IOException("No " + key + " in " + url);
+        }
+        return value.trim();
+    }
+
+    // Dice are separated by spaces, each die being the letters on its faces.
+    private static Die[] parseDice(String s, int count, URL url)
+            throws IOException {
+        StringTokenizer st = new StringTokenizer(s);
+        if (st.countTokens() != count) {
+            throw new IOException("Expected " + count + " dice but found "
+                + st.countTokens() + " in " + url);
+        }
+        Die[] dice = new Die[count];
+        for (int i = 0; i < count; i++) {
+            dice[i] = new Die(st.nextToken().toUpperCase().toCharArray());
+        }
+        return dice;
+    }
+
+    private static Dictionary readDictionary(URL url) throws IOException {
+        Boggle.debug("Reading dictionary " + url);
+        InputStream is = url.openStream();
+        try {
+            if (url.getPath().endsWith(".dawg")) {
+                return Dictionaries.readDawg(is);
+            }
+            return Dictionaries.readWords(is);
+        } finally {
+            is.close();
+        }
+    }
+
+    // A pack in use and how many are using it.
+    private static class Entry {
+        private LanguagePack pack;
+        private int users;
+    }
+
+    /**
+     * Simple commandline test of LanguagePacks.
+     *
+     * @param   args                Name of the pack to load.
+     * @throws  IOException         If the pack cannot be loaded.
+     * @throws  DictionaryUnavailableException  If its dictionary cannot be
+     *                                          loaded.
+     */
+    public static void main(String[] args) throws IOException,
+            DictionaryUnavailableException {
+        LanguagePack pack = acquire(args.length > 0 ? args[0] : ENGLISH);
+        if (pack != english) {
+            System.out.println("Words: "
+                + Boggle.dictionary(pack.currentDictionary()).size());
+        }
+        System.out.println("Scoring: " + pack.scoring());
+        char[][] letters 
+            = Die.rollLetters(pack.dice(16), new java.util.Random());
+        for (int i = 0; i < letters.length; i++) {
+            System.out.println(new String(letters[i]));
+        }
+        System.out.println("Same pack again: " + (acquire(pack.name()) == pack));
+        release(pack);
+        release(pack);
+    }
+}
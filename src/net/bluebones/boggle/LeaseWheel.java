@@ -0,0 +1,139 @@
+/*
+ * LeaseWheel
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package net.bluebones.boggle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Leases that run out after a number of ticks, kept on a hashed timing 
+ * wheel.  Each slot of the wheel holds the leases that run out when the 
+ * wheel next turns to it, so renewing a lease and expiring those that are 
+ * up take the same time however many there are.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     Server
+ */
+class LeaseWheel<K> {
+
+    private List<Set<K>> slots;
+    private Map<K, Integer> slotOf = new HashMap<K, Integer>();
+    private int current = 0;
+
+    /**
+     * Initializes a new <code>LeaseWheel</code>.
+     *
+     * @param   size    <code>int</code> number of slots, one more than the 
+     *                  longest lease in ticks.
+     */
+    LeaseWheel(int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Wheel of " + size 
+                + " slots is too small.");
+        }
+        this.slots = new ArrayList<Set<K>>(size);
+        for (int i = 0; i < size; i++) {
+            this.slots.add(new HashSet<K>());
+        }
+    }
+    
+    /**
+     * Grants a lease, or extends one, to run out <code>ticks</code> ticks 
+     * from now.
+     *
+     * @param   key     Holder of the lease.
+     * @param   ticks   <code>int</code> length of the lease.
+     * @throws  IllegalArgumentException    If <code>ticks</code> is less than 
+     *                                      1 or does not fit on the wheel.
+     */
+    synchronized void renew(K key, int ticks) {
+        if (ticks < 1 || ticks >= this.slots.size()) {
+            throw new IllegalArgumentException("Cannot lease for " + ticks 
+                + " ticks.");
+        }
+        remove(key);
+        int slot = (this.current + ticks) % this.slots.size();
+        this.slots.get(slot).add(key);
+        this.slotOf.put(key, Integer.valueOf(slot));
+    }
+    
+    /**
+     * Ends a lease early.
+     *
+     * @param   key     Holder of the lease.
+     * @return          <code>boolean</code> whether there was a lease.
+     */
+    synchronized boolean remove(K key) {
+        Integer slot = this.slotOf.remove(key);
+        if (slot == null) {
+            return false;
+        }
+        this.slots.get(slot.intValue()).remove(key);
+        return true;
+    }
+    
+    /**
+     * Determines if <code>key</code> holds a lease.
+     *
+     * @param   key     Holder of the lease.
+     * @return          <code>boolean</code>.
+     */
+    synchronized boolean contains(K key) {
+        return this.slotOf.containsKey(key);
+    }
+    
+    /**
+     * Turns the wheel on a tick.
+     *
+     * @return  <code>Set</code> of the holders whose leases have run out.
+     */
+    synchronized Set<K> tick() {
+        this.current = (this.current + 1) % this.slots.size();
+        Set<K> expired = this.slots.get(this.current);
+        if (expired.isEmpty()) {
+            return Collections.emptySet();
+        }
+        this.slots.set(this.current, new HashSet<K>());
+        for (K key : expired) {
+            this.slotOf.remove(key);
+        }
+        return expired;
+    }
+    
+    /**
+     * Gets the number of leases held.
+     *
+     * @return  <code>int</code>.
+     */
+    synchronized int size() {
+        return this.slotOf.size();
+    }
+}
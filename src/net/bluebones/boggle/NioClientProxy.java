@@ -0,0 +1,123 @@
+/*
+ * NioClientProxy
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.io.Serializable;
+import java.rmi.ConnectIOException;
+import java.rmi.RemoteException;
+import java.rmi.server.UID;
+
+/**
+ * The host's handle on a client connected through an <code>NioHost</code>.
+ * Calls are passed down the client's connection, the ones with no result
+ * without waiting for them to be handled.
+ * <br /><br />
+ * Proxies are sent to clients as part of <code>Round</code>s and
+ * <code>Rubber</code>s, like RMI stubs.  A copy keeps the identity of the
+ * proxy it was made from, so it can be told apart from other players', but
+ * it is not connected to anything.  The host's own client, not being 
+ * exported over RMI either, reaches the players as one of these copies.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     NioHost
+ */
+class NioClientProxy implements IClient, Serializable {
+
+    private UID id = new UID();
+    private transient NioEndpoint.Connection connection;
+
+    /**
+     * Initializes a new <code>NioClientProxy</code>.
+     *
+     * @param   connection  <code>NioEndpoint.Connection</code> to the client.
+     */
+    NioClientProxy(NioEndpoint.Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Initializes a copy of the proxy with the specified identity, connected
+     * to nothing.
+     *
+     * @param   id  <code>UID</code> of the proxy copied.
+     */
+    NioClientProxy(UID id) {
+        this.id = id;
+    }
+
+    // Identity that copies of this proxy share.
+    UID id() {
+        return this.id;
+    }
+
+    public void startGame(char[][] letters, int timeInSecs, GameId gameId)
+            throws RemoteException {
+        connection().send(NioEndpoint.START_GAME, new Object[] { letters,
+            Integer.valueOf(timeInSecs), gameId });
+    }
+
+    public void results(Round round, Rubber rubber) throws RemoteException {
+        connection().send(NioEndpoint.RESULTS, new Object[] { round, rubber });
+    }
+
+    public boolean isActive(GameId gameId) throws RemoteException {
+        return ((Boolean) connection().call(NioEndpoint.IS_ACTIVE,
+            new Object[] { gameId })).booleanValue();
+    }
+
+    public void setRubber(Rubber rubber) throws RemoteException {
+        connection().send(NioEndpoint.SET_RUBBER, new Object[] { rubber });
+    }
+
+    public void updateRubber(RubberDelta delta) throws RemoteException {
+        connection().send(NioEndpoint.UPDATE_RUBBER, new Object[] { delta });
+    }
+
+    private NioEndpoint.Connection connection() throws ConnectIOException {
+        if (this.connection == null) {
+            throw new ConnectIOException("Not connected to client " + this.id);
+        }
+        return this.connection;
+    }
+
+    /**
+     * Determines if <code>o</code> is a proxy for the same client.
+     *
+     * @param   o   <code>Object</code> to compare.
+     * @return      <code>boolean</code>.
+     */
+    public boolean equals(Object o) {
+        return (o instanceof NioClientProxy)
+            && ((NioClientProxy) o).id.equals(this.id);
+    }
+
+    public int hashCode() {
+        return this.id.hashCode();
+    }
+
+    public String toString() {
+        return "NioClientProxy (" + this.id + ", " + this.connection + ")";
+    }
+}
@@ -0,0 +1,679 @@
+/*
+ * NioEndpoint
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.rmi.ConnectIOException;
+import java.rmi.MarshalException;
+import java.rmi.RemoteException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carries the calls of <code>IServer</code> and <code>IClient</code> over
+ * plain sockets, as an alternative to RMI.  One thread runs a selector for
+ * every connection the endpoint has, so a host needs no thread per player.
+ * <br /><br />
+ * Each call is sent as a frame: an <code>int</code> giving the length of the
+ * rest of the frame, a <code>byte</code> saying which call it is, an
+ * <code>int</code> call id and then the arguments, serialized.  A call id of
+ * 0 means no reply is wanted.  Otherwise the other end answers with a
+ * <code>REPLY</code> frame holding the result, or a <code>FAILED</code> frame
+ * holding a message, with the same call id.
+ * <br /><br />
+ * Incoming calls are handled one at a time on a separate thread so that a
+ * slow handler never holds up reading and writing.  Nothing is exported 
+ * over RMI for the transport's sake: players are sent by name and id.  Only
+ * the classes calls are made of are read back, so that nobody can have a 
+ * connection build objects of any other class.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     NioHost
+ * @see     NioServerProxy
+ */
+class NioEndpoint implements Runnable {
+
+    /** Milliseconds to wait for the reply to a call. */
+    static final int CALL_TIMEOUT_MILLIS = 10000;
+
+    /** Largest frame accepted.  A connection sending more is dropped. */
+    static final int MAXIMUM_FRAME = 16 * 1024 * 1024;
+
+    // Calls a client makes of its host.
+    static final byte ADD_CLIENT = 1;
+    static final byte RETURN_RESULTS = 2;
+    static final byte WRITE_MSG = 3;
+    static final byte IS_CLIENT = 4;
+    static final byte HEARTBEAT = 12;
+    // Calls a host makes of its clients.
+    static final byte START_GAME = 5;
+    static final byte RESULTS = 6;
+    static final byte IS_ACTIVE = 7;
+    static final byte SET_RUBBER = 8;
+    static final byte UPDATE_RUBBER = 11;
+    // Answers.
+    static final byte REPLY = 9;
+    static final byte FAILED = 10;
+
+    // Bytes before the arguments: length, call and call id.
+    private static final int HEADER = 9;
+    private static final int READ_BUFFER = 8192;
+
+    /**
+     * Receives the calls arriving on an endpoint's connections.
+     */
+    interface Handler {
+
+        /**
+         * Handles a call.  Called on the endpoint's dispatch thread, which 
+         * handles every connection's calls, so should not wait long.
+         *
+         * @param   connection  <code>Connection</code> the call came in on.
+         * @param   call        <code>byte</code> call, such as
+         *                      <code>START_GAME</code>.
+         * @param   args        <code>Object[]</code> arguments.
+         * @return              <code>Object</code> result to send back if a
+         *                      reply is wanted.
+         * @throws  Exception   To send back a <code>FAILED</code> frame.
+         */
+        Object handle(Connection connection, byte call, Object[] args)
+            throws Exception;
+
+        /**
+         * Called on the dispatch thread once a connection has closed.
+         *
+         * @param   connection  <code>Connection</code> that closed.
+         */
+        void closed(Connection connection);
+    }
+
+    private Selector selector;
+    private Thread thread;
+    private ExecutorService dispatcher;
+    // Work that has to be done on the selector thread.
+    private Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+    private volatile boolean open = true;
+
+    /**
+     * Initializes a new <code>NioEndpoint</code> and starts its threads.
+     *
+     * @param   name        <code>String</code> to name the threads after.
+     * @throws  IOException If no selector can be opened.
+     */
+    NioEndpoint(final String name) throws IOException {
+        this.selector = Selector.open();
+        this.dispatcher = Executors.newSingleThreadExecutor(
+            new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, name + " dispatcher");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Accepts connections on the specified port, passing calls on any of them
+     * to <code>handler</code>.
+     *
+     * @param   port        <code>int</code> TCP port to listen on.
+     * @param   handler     <code>Handler</code> for every connection.
+     * @throws  IOException If the port cannot be listened on.
+     */
+    void listen(int port, final Handler handler) throws IOException {
+        final ServerSocketChannel server = ServerSocketChannel.open();
+        server.socket().setReuseAddress(true);
+        server.socket().bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        execute(new Runnable() {
+            public void run() {
+                try {
+                    server.register(selector, SelectionKey.OP_ACCEPT, handler);
+                } catch (ClosedChannelException e) {
+                    Boggle.debug("Stopped listening before starting: " + e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Connects to the specified address, waiting until connected.
+     *
+     * @param   address     <code>InetSocketAddress</code> to connect to.
+     * @param   handler     <code>Handler</code> for calls made by the other
+     *                      end.
+     * @return              <code>Connection</code>.
+     * @throws  IOException If no connection can be made.
+     */
+    Connection connect(InetSocketAddress address, Handler handler)
+            throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        return register(channel, handler);
+    }
+
+    /** Closes every connection and stops this endpoint's threads. */
+    void close() {
+        this.open = false;
+        this.selector.wakeup();
+        this.dispatcher.shutdown();
+    }
+
+    // Passes work to the dispatch thread unless this endpoint has been 
+    // closed, in which case there is nobody left to do it for.
+    private void dispatchLater(Runnable task) {
+        try {
+            this.dispatcher.execute(task);
+        } catch (RejectedExecutionException e) {
+            Boggle.debug("Endpoint closed, dropping " + task);
+        }
+    }
+
+    private Connection register(final SocketChannel channel,
+            Handler handler) throws IOException {
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        final Connection connection = new Connection(channel, handler);
+        execute(new Runnable() {
+            public void run() {
+                try {
+                    connection.key = channel.register(selector,
+                        SelectionKey.OP_READ, connection);
+                    if (! connection.out.isEmpty()) {
+                        connection.key.interestOps(
+                            SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    }
+                } catch (ClosedChannelException e) {
+                    connection.close();
+                }
+            }
+        });
+        return connection;
+    }
+
+    // Runs task on the selector thread.
+    private void execute(Runnable task) {
+        this.tasks.add(task);
+        this.selector.wakeup();
+    }
+
+    /** Selects until closed. */
+    public void run() {
+        while (this.open) {
+            try {
+                this.selector.select();
+            } catch (IOException e) {
+                Boggle.debug("Selector failed: " + e);
+                break;
+            }
+            Runnable task;
+            while ((task = this.tasks.poll()) != null) {
+                task.run();
+            }
+            Iterator<SelectionKey> keys
+                = this.selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (! key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept(key);
+                    continue;
+                }
+                Connection connection = (Connection) key.attachment();
+                try {
+                    if (key.isReadable()) {
+                        connection.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.write();
+                    }
+                } catch (IOException e) {
+                    Boggle.debug("Lost connection: " + e);
+                    connection.close();
+                }
+            }
+        }
+        for (Iterator<SelectionKey> iter = this.selector.keys().iterator();
+                iter.hasNext(); ) {
+            SelectionKey key = iter.next();
+            if (key.attachment() instanceof Connection) {
+                ((Connection) key.attachment()).close();
+            } else {
+                try {
+                    key.channel().close();
+                } catch (IOException e) {
+                    Boggle.debug(e.toString());
+                }
+            }
+        }
+        try {
+            this.selector.close();
+        } catch (IOException e) {
+            Boggle.debug(e.toString());
+        }
+    }
+
+    private void accept(SelectionKey key) {
+        try {
+            SocketChannel channel
+                = ((ServerSocketChannel) key.channel()).accept();
+            if (channel != null) {
+                Boggle.debug("Accepted connection from "
+                    + channel.socket().getRemoteSocketAddress());
+                register(channel, (Handler) key.attachment());
+            }
+        } catch (IOException e) {
+            Boggle.debug("Could not accept connection: " + e);
+        }
+    }
+
+    // Makes a frame of a call and its arguments.
+    private static ByteBuffer frame(byte call, int id, Object payload)
+            throws MarshalException {
+        Frame frame = new Frame();
+        try {
+            ObjectOutputStream out = new ObjectOutputStream(frame);
+            out.writeObject(payload);
+            out.close();
+        } catch (IOException e) {
+            throw new MarshalException("Could not send call " + call, e);
+        }
+        ByteBuffer buffer = frame.toByteBuffer();
+        buffer.putInt(0, buffer.limit() - 4);
+        buffer.put(4, call);
+        buffer.putInt(5, id);
+        return buffer;
+    }
+
+    private static Object unframe(byte[] payload)
+            throws IOException, ClassNotFoundException {
+        ObjectInputStream in
+            = new AllowListInputStream(new ByteArrayInputStream(payload));
+        try {
+            return in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+
+    // Holds a frame as it is written, leaving room for the header.
+    private static class Frame extends ByteArrayOutputStream {
+
+        private Frame() {
+            super(256);
+            this.count = HEADER;
+        }
+
+        private ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(this.buf, 0, this.count);
+        }
+    }
+
+    // Reads only the classes this package sends: its own, the few from the 
+    // JDK that calls are made of and RMI stubs, which GameCodec writes for 
+    // players reached over RMI and reads back with one of these.
+    static class AllowListInputStream extends ObjectInputStream {
+
+        private static final String[] ALLOWED = new String[] {
+            "java.lang.Object", "java.lang.String", "java.lang.Boolean", 
+            "java.lang.Number", "java.lang.Integer", "java.rmi.server.UID", 
+            "java.rmi.server.RemoteObject", "java.rmi.server.RemoteStub", 
+            "java.rmi.server.RemoteObjectInvocationHandler", 
+            "java.lang.reflect.Proxy" };
+
+        AllowListInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+                throws IOException, ClassNotFoundException {
+            if (! isAllowed(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), 
+                    "Not allowed");
+            }
+            return super.resolveClass(desc);
+        }
+
+        // Stubs are proxies for remote interfaces.
+        protected Class<?> resolveProxyClass(String[] interfaces)
+                throws IOException, ClassNotFoundException {
+            for (int i = 0; i < interfaces.length; i++) {
+                if (! interfaces[i].equals("java.rmi.Remote") 
+                        && ! isAllowed(interfaces[i])) {
+                    throw new InvalidClassException(interfaces[i], 
+                        "Not allowed");
+                }
+            }
+            return super.resolveProxyClass(interfaces);
+        }
+
+        // Arrays are allowed if what they hold is.
+        private static boolean isAllowed(String name) {
+            int dimensions = 0;
+            while (name.startsWith("[", dimensions)) {
+                dimensions++;
+            }
+            if (dimensions > 0) {
+                if (name.length() == dimensions + 1) {
+                    // Of a primitive type.
+                    return true;
+                }
+                if (name.charAt(dimensions) != 'L' || ! name.endsWith(";")) {
+                    return false;
+                }
+                name = name.substring(dimensions + 1, name.length() - 1);
+            }
+            if (name.startsWith(NioEndpoint.class.getPackage().getName() 
+                    + ".")) {
+                return true;
+            }
+            for (int i = 0; i < ALLOWED.length; i++) {
+                if (ALLOWED[i].equals(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // A call waiting for its reply.
+    private static class Call {
+
+        private CountDownLatch done = new CountDownLatch(1);
+        private Object result;
+        private String failure;
+
+        private void complete(Object result, String failure) {
+            this.result = result;
+            this.failure = failure;
+            this.done.countDown();
+        }
+
+        private Object await() throws RemoteException {
+            try {
+                if (! this.done.await(CALL_TIMEOUT_MILLIS,
+                        TimeUnit.MILLISECONDS)) {
+                    throw new ConnectIOException("No reply in "
+                        + CALL_TIMEOUT_MILLIS + "ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConnectIOException("Interrupted waiting for reply");
+            }
+            if (this.failure != null) {
+                throw new RemoteException(this.failure);
+            }
+            return this.result;
+        }
+    }
+
+    /**
+     * One connection of an endpoint.  Calls can be sent from any thread.
+     */
+    final class Connection {
+
+        private SocketChannel channel;
+        private Handler handler;
+        private SelectionKey key;
+        private ByteBuffer in = ByteBuffer.allocate(READ_BUFFER);
+        private Queue<ByteBuffer> out 
+            = new ConcurrentLinkedQueue<ByteBuffer>();
+        private Map<Integer, Call> calls 
+            = new ConcurrentHashMap<Integer, Call>();
+        private AtomicInteger lastCallId = new AtomicInteger();
+        private AtomicBoolean closed = new AtomicBoolean();
+
+        private Connection(SocketChannel channel, Handler handler) {
+            this.channel = channel;
+            this.handler = handler;
+        }
+
+        /**
+         * Sends a call without waiting for it to be handled.
+         *
+         * @param   call    <code>byte</code> call to make.
+         * @param   args    <code>Object[]</code> arguments.
+         * @throws  RemoteException If the connection is closed or the
+         *                          arguments cannot be serialized.
+         */
+        void send(byte call, Object[] args) throws RemoteException {
+            enqueue(frame(call, 0, args));
+        }
+
+        /**
+         * Makes a call and waits up to <code>CALL_TIMEOUT_MILLIS</code> for
+         * the result.
+         *
+         * @param   call    <code>byte</code> call to make.
+         * @param   args    <code>Object[]</code> arguments.
+         * @return          <code>Object</code> result.
+         * @throws  RemoteException If the connection is closed or closes,
+         *                          the call fails at the other end or no
+         *                          reply comes in time.
+         */
+        Object call(byte call, Object[] args) throws RemoteException {
+            int id;
+            do {
+                id = this.lastCallId.incrementAndGet();
+            } while (id == 0);
+            Call pending = new Call();
+            this.calls.put(Integer.valueOf(id), pending);
+            try {
+                enqueue(frame(call, id, args));
+                return pending.await();
+            } finally {
+                this.calls.remove(Integer.valueOf(id));
+            }
+        }
+
+        /**
+         * Whether this connection has closed.
+         *
+         * @return  <code>boolean</code>.
+         */
+        boolean isClosed() {
+            return this.closed.get();
+        }
+
+        /**
+         * Closes this connection.  Calls waiting for replies fail and the
+         * handler is told.
+         */
+        void close() {
+            if (! this.closed.compareAndSet(false, true)) {
+                return;
+            }
+            if (this.key != null) {
+                this.key.cancel();
+            }
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                Boggle.debug(e.toString());
+            }
+            for (Iterator<Call> iter = this.calls.values().iterator();
+                    iter.hasNext(); ) {
+                iter.next().complete(null, "Connection closed");
+            }
+            dispatchLater(new Runnable() {
+                public void run() {
+                    handler.closed(Connection.this);
+                }
+            });
+        }
+
+        public String toString() {
+            return "Connection to "
+                + this.channel.socket().getRemoteSocketAddress();
+        }
+
+        private void enqueue(ByteBuffer frame) throws ConnectIOException {
+            if (this.closed.get()) {
+                throw new ConnectIOException("Connection closed");
+            }
+            this.out.add(frame);
+            execute(new Runnable() {
+                public void run() {
+                    if (key != null && key.isValid()) {
+                        key.interestOps(
+                            SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    }
+                }
+            });
+        }
+
+        // Writes as much as the socket will take.  Called on the selector
+        // thread.
+        private void write() throws IOException {
+            ByteBuffer frame;
+            while ((frame = this.out.peek()) != null) {
+                this.channel.write(frame);
+                if (frame.hasRemaining()) {
+                    return;
+                }
+                this.out.poll();
+            }
+            this.key.interestOps(SelectionKey.OP_READ);
+        }
+
+        // Reads whatever has arrived and acts on each whole frame.  Called on
+        // the selector thread.
+        private void read() throws IOException {
+            if (this.channel.read(this.in) < 0) {
+                close();
+                return;
+            }
+            this.in.flip();
+            while (this.in.remaining() >= 4) {
+                int length = this.in.getInt(this.in.position());
+                if (length < HEADER - 4 || length > MAXIMUM_FRAME) {
+                    throw new IOException("Bad frame length " + length);
+                }
+                if (this.in.remaining() < length + 4) {
+                    break;
+                }
+                this.in.getInt();
+                byte call = this.in.get();
+                int id = this.in.getInt();
+                byte[] payload = new byte[length - (HEADER - 4)];
+                this.in.get(payload);
+                received(call, id, payload);
+            }
+            this.in.compact();
+            if (! this.in.hasRemaining()) {
+                // Full with part of a frame.  Grow as the rest arrives 
+                // rather than trusting its length up front.
+                ByteBuffer bigger = ByteBuffer.allocate(Math.min(
+                    2 * this.in.capacity(), this.in.getInt(0) + 4));
+                this.in.flip();
+                bigger.put(this.in);
+                this.in = bigger;
+            } else if (this.in.position() == 0 
+                    && this.in.capacity() > READ_BUFFER) {
+                // Done with a big frame.
+                this.in = ByteBuffer.allocate(READ_BUFFER);
+            }
+        }
+
+        private void received(final byte call, final int id,
+                final byte[] payload) {
+            if (call == REPLY || call == FAILED) {
+                Call pending = this.calls.get(Integer.valueOf(id));
+                if (pending == null) {
+                    // Gave up waiting for it.
+                    return;
+                }
+                try {
+                    Object result = unframe(payload);
+                    if (call == REPLY) {
+                        pending.complete(result, null);
+                    } else {
+                        pending.complete(null, String.valueOf(result));
+                    }
+                } catch (Exception e) {
+                    pending.complete(null, "Unreadable reply: " + e);
+                }
+                return;
+            }
+            dispatchLater(new Runnable() {
+                public void run() {
+                    dispatch(call, id, payload);
+                }
+            });
+        }
+
+        // Handles a call on the dispatch thread and replies if need be.
+        private void dispatch(byte call, int id, byte[] payload) {
+            Object result;
+            byte answer = REPLY;
+            try {
+                result = this.handler.handle(this, call,
+                    (Object[]) unframe(payload));
+            } catch (Exception e) {
+                Boggle.debug("Call " + call + " failed: " + e);
+                result = e.toString();
+                answer = FAILED;
+            }
+            if (id == 0) {
+                return;
+            }
+            try {
+                enqueue(frame(answer, id, result));
+            } catch (RemoteException e) {
+                Boggle.debug("Could not reply to call " + call + ": " + e);
+            }
+        }
+    }
+}
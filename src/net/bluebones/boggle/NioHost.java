@@ -0,0 +1,118 @@
+/*
+ * NioHost
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accepts players for a <code>Server</code> over the NIO transport.  Each
+ * connection becomes a <code>NamedClient</code> wrapping an
+ * <code>NioClientProxy</code> once it has called <code>addClient</code>, and
+ * is removed from the server as soon as it closes.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     NioEndpoint
+ */
+class NioHost implements NioEndpoint.Handler {
+
+    private Server server;
+    private NioEndpoint endpoint;
+    private Map<NioEndpoint.Connection, NamedClient> clients
+        = new ConcurrentHashMap<NioEndpoint.Connection, NamedClient>();
+    private volatile boolean closed = false;
+
+    /**
+     * Initializes a new <code>NioHost</code> and starts listening.
+     *
+     * @param   server      <code>Server</code> to pass calls to.
+     * @param   port        <code>int</code> TCP port to listen on.
+     * @throws  IOException If the port cannot be listened on.
+     */
+    NioHost(Server server, int port) throws IOException {
+        this.server = server;
+        this.endpoint = new NioEndpoint("NIO host on port " + port);
+        try {
+            this.endpoint.listen(port, this);
+        } catch (IOException e) {
+            this.endpoint.close();
+            throw e;
+        }
+    }
+
+    public Object handle(NioEndpoint.Connection connection, byte call,
+            Object[] args) throws Exception {
+        NamedClient namedClient = this.clients.get(connection);
+        switch (call) {
+            case NioEndpoint.ADD_CLIENT:
+                if (namedClient != null) {
+                    throw new IllegalStateException("Already added.");
+                }
+                namedClient = new NamedClient((String) args[0],
+                    new NioClientProxy(connection));
+                this.clients.put(connection, namedClient);
+                this.server.addClient(namedClient);
+                return null;
+            case NioEndpoint.RETURN_RESULTS:
+                if (namedClient == null) {
+                    throw new IllegalStateException("Not added.");
+                }
+                // Sent as words alone, the client's side of the turn being
+                // of no use here.  Marked elsewhere so that other calls are 
+                // not held up behind it.
+                this.server.returnResultsLater(
+                    new Turn(namedClient, (String[]) args[0]));
+                return null;
+            case NioEndpoint.WRITE_MSG:
+                this.server.writeMsg((String) args[0]);
+                return null;
+            case NioEndpoint.IS_CLIENT:
+                return Boolean.valueOf(namedClient != null
+                    && this.server.isClient(namedClient.client()));
+            case NioEndpoint.HEARTBEAT:
+                return Boolean.valueOf(namedClient != null
+                    && this.server.heartbeat(namedClient.client()));
+            default:
+                throw new IllegalArgumentException("Unknown call " + call);
+        }
+    }
+
+    public void closed(NioEndpoint.Connection connection) {
+        NamedClient namedClient = this.clients.remove(connection);
+        if (namedClient != null && ! this.closed) {
+            Boggle.debug(namedClient.name() + " disconnected.");
+            this.server.removeClients(Collections.singleton(namedClient));
+            this.server.checkResultsSendLater();
+        }
+    }
+
+    /** Stops listening and drops every connection. */
+    void close() {
+        this.closed = true;
+        this.endpoint.close();
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * NioServerProxy
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.rmi.ConnectException;
+import java.rmi.RemoteException;
+
+/**
+ * A client's handle on a host reached over the NIO transport.  Calls the
+ * host makes of the client come in on the same connection and are passed to
+ * the local <code>IClient</code>.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     NioHost
+ */
+class NioServerProxy implements IServer, NioEndpoint.Handler {
+
+    private IClient client;
+    private NioEndpoint endpoint;
+    private NioEndpoint.Connection connection;
+
+    private NioServerProxy(IClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Connects to the host described by <code>hostInfo</code>.
+     *
+     * @param   hostInfo    <code>HostInfo</code> of the host.
+     * @param   client      <code>IClient</code> to pass the host's calls to.
+     * @return              <code>NioServerProxy</code>.
+     * @throws  ConnectException    If the host cannot be reached.
+     */
+    public static NioServerProxy connect(HostInfo hostInfo, IClient client)
+            throws ConnectException {
+        NioServerProxy proxy = new NioServerProxy(client);
+        try {
+            proxy.endpoint = new NioEndpoint("NIO client of "
+                + hostInfo.getSimpleAddr());
+            proxy.connection = proxy.endpoint.connect(new InetSocketAddress(
+                hostInfo.address(), hostInfo.port()), proxy);
+        } catch (IOException e) {
+            if (proxy.endpoint != null) {
+                proxy.endpoint.close();
+            }
+            throw new ConnectException("Cannot connect to "
+                + hostInfo.getSimpleAddr(), e);
+        }
+        return proxy;
+    }
+
+    /**
+     * Joins the game.  The address is only for show: the host knows the
+     * client by its connection.
+     *
+     * @param   clientAddr      Address of the client.
+     * @param   clientName      Name of the player.
+     * @throws  RemoteException If the host cannot be reached or refuses.
+     */
+    public void addClient(String clientAddr, String clientName)
+            throws RemoteException {
+        Boggle.debug("Joining as " + clientName + " (" + clientAddr + ")");
+        this.connection.call(NioEndpoint.ADD_CLIENT,
+            new Object[] { clientName });
+    }
+
+    public void returnResults(Turn turn) throws RemoteException {
+        this.connection.send(NioEndpoint.RETURN_RESULTS,
+            new Object[] { turn.getWords() });
+    }
+
+    public void writeMsg(String msg) throws RemoteException {
+        this.connection.send(NioEndpoint.WRITE_MSG, new Object[] { msg });
+    }
+
+    /**
+     * Determines if this connection's client is a current client of the
+     * host.  There is only one client per connection so
+     * <code>client</code> is not sent.
+     *
+     * @param   client          Client to check.
+     * @return                  <code>boolean</code>.
+     * @throws  RemoteException If the host cannot be reached.
+     */
+    public boolean isClient(IClient client) throws RemoteException {
+        return ((Boolean) this.connection.call(NioEndpoint.IS_CLIENT,
+            new Object[0])).booleanValue();
+    }
+
+    /**
+     * Extends this connection's client's lease on the host.
+     *
+     * @param   client          Client that is still there.
+     * @return                  <code>boolean</code> whether the client is 
+     *                          still a client of the host.
+     * @throws  RemoteException If the host cannot be reached.
+     */
+    public boolean heartbeat(IClient client) throws RemoteException {
+        return ((Boolean) this.connection.call(NioEndpoint.HEARTBEAT,
+            new Object[0])).booleanValue();
+    }
+
+    /** Leaves the host, closing the connection. */
+    public void close() {
+        this.endpoint.close();
+    }
+
+    public Object handle(NioEndpoint.Connection connection, byte call,
+            Object[] args) throws Exception {
+        switch (call) {
+            case NioEndpoint.START_GAME:
+                this.client.startGame((char[][]) args[0],
+                    ((Integer) args[1]).intValue(), (GameId) args[2]);
+                return null;
+            case NioEndpoint.RESULTS:
+                this.client.results((Round) args[0], (Rubber) args[1]);
+                return null;
+            case NioEndpoint.IS_ACTIVE:
+                return Boolean.valueOf(this.client.isActive((GameId) args[0]));
+            case NioEndpoint.SET_RUBBER:
+                this.client.setRubber((Rubber) args[0]);
+                return null;
+            case NioEndpoint.UPDATE_RUBBER:
+                this.client.updateRubber((RubberDelta) args[0]);
+                return null;
+            default:
+                throw new IllegalArgumentException("Unknown call " + call);
+        }
+    }
+
+    public void closed(NioEndpoint.Connection connection) {
+        Boggle.debug("Connection to host closed.");
+    }
+
+    public String toString() {
+        return "NioServerProxy (" + this.connection + ")";
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * OffHeapWordIndex
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Word index kept outside the Java heap, for lexicons of millions of words.
+ * The words are packed one after another into a direct buffer, each after a
+ * char giving its length, and every prefix of every word has an entry in an
+ * open addressing hash table of <code>long</code>s, itself in a direct
+ * buffer.  An entry points at the first word that starts with its prefix
+ * so no prefix is stored twice.  The garbage collector sees two objects
+ * however many words there are, so it pauses no longer for a big lexicon
+ * than for a small one.
+ * <br /><br />
+ * Each entry holds, from the top bit down: whether the prefix is a whole
+ * word (1 bit), more bits of the prefix's hash (23 bits), where the word
+ * holding it starts (32 bits) and the length of the prefix (8 bits).  The
+ * length is never 0 so neither is an entry, and 0 marks an empty slot.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     Dictionaries
+ */
+class OffHeapWordIndex implements WordIndex {
+
+    /** Longest word that can be indexed. */
+    static final int MAXIMUM_WORD_LENGTH = 0xff;
+
+    // The table is kept no more than three quarters full.
+    private static final int LOAD_NUMERATOR = 3;
+    private static final int LOAD_DENOMINATOR = 4;
+    // Largest table a direct buffer can hold.
+    private static final int MAXIMUM_SLOTS = 1 << 27;
+
+    private static final long WORD_BIT = 1L << 63;
+    private static final int FINGERPRINT_SHIFT = 40;
+    private static final long FINGERPRINT_MASK = 0x7fffffL;
+    private static final int OFFSET_SHIFT = 8;
+    private static final long OFFSET_MASK = 0xffffffffL;
+    private static final long LENGTH_MASK = 0xffL;
+
+    // Length then chars of each word in ascending order.
+    private ByteBuffer chars;
+    private int charCount;
+    private ByteBuffer table;
+    private int mask;
+    private int size;
+
+    /**
+     * Initializes a new <code>OffHeapWordIndex</code> of the specified words.
+     *
+     * @param   words   <code>List</code> of the words in ascending order with
+     *                  no duplicates.
+     * @throws  IllegalArgumentException    If a word is empty or longer than
+     *                                      <code>MAXIMUM_WORD_LENGTH</code>,
+     *                                      or there are too many words.
+     */
+    OffHeapWordIndex(List<String> words) {
+        // Sorted, the prefixes a word adds are those longer than the part it
+        // has in common with the word before.
+        long charCount = 0;
+        long entries = 0;
+        String previous = "";
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            if (word.length() == 0 || word.length() > MAXIMUM_WORD_LENGTH) {
+                throw new IllegalArgumentException("Cannot index a word of "
+                    + word.length() + " chars.");
+            }
+            charCount += 1 + word.length();
+            entries += word.length() - commonPrefix(previous, word);
+            previous = word;
+        }
+        long slots = Math.max(2, Long.highestOneBit(
+            entries * LOAD_DENOMINATOR / LOAD_NUMERATOR) * 2);
+        if (charCount > OFFSET_MASK || charCount > Integer.MAX_VALUE / 2
+                || slots > MAXIMUM_SLOTS) {
+            throw new IllegalArgumentException("Too many words to index: "
+                + words.size());
+        }
+        this.charCount = (int) charCount;
+        this.chars = ByteBuffer.allocateDirect(this.charCount * 2)
+            .order(ByteOrder.nativeOrder());
+        this.table = ByteBuffer.allocateDirect((int) slots * 8)
+            .order(ByteOrder.nativeOrder());
+        this.mask = (int) slots - 1;
+        this.size = words.size();
+
+        int offset = 0;
+        previous = "";
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            this.chars.putChar(offset * 2, (char) word.length());
+            offset++;
+            int hash = 0;
+            int common = commonPrefix(previous, word);
+            for (int j = 0; j < word.length(); j++) {
+                char c = word.charAt(j);
+                this.chars.putChar((offset + j) * 2, c);
+                hash = hash * 31 + c;
+                if (j >= common) {
+                    insert(hash, offset, j + 1, j == word.length() - 1);
+                }
+            }
+            offset += word.length();
+            previous = word;
+        }
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int n = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < n && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // Spreads the bits of a String style hash over the whole int.
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
+
+    // The top bits of the hash.  Only in big tables do they overlap those 
+    // that pick the slot, and even then they tell apart entries that were 
+    // pushed along from other slots.
+    private static long fingerprint(int mixed) {
+        return (mixed >>> 9) & FINGERPRINT_MASK;
+    }
+
+    private void insert(int hash, int offset, int length, boolean word) {
+        int mixed = mix(hash);
+        int slot = mixed & this.mask;
+        while (this.table.getLong(slot * 8) != 0) {
+            slot = (slot + 1) & this.mask;
+        }
+        this.table.putLong(slot * 8, (word ? WORD_BIT : 0)
+            | (fingerprint(mixed) << FINGERPRINT_SHIFT)
+            | ((offset & OFFSET_MASK) << OFFSET_SHIFT) | length);
+    }
+
+    // Gets the entry for s[0..length), whose hash is given, or 0 if there is
+    // none.
+    private long find(char[] s, int length, int hash) {
+        int mixed = mix(hash);
+        long fingerprint = fingerprint(mixed);
+        int slot = mixed & this.mask;
+        long entry;
+        while ((entry = this.table.getLong(slot * 8)) != 0) {
+            if ((entry & LENGTH_MASK) == length
+                    && ((entry >>> FINGERPRINT_SHIFT) & FINGERPRINT_MASK)
+                        == fingerprint
+                    && matches(s, length,
+                        (int) ((entry >>> OFFSET_SHIFT) & OFFSET_MASK))) {
+                return entry;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return 0;
+    }
+
+    private boolean matches(char[] s, int length, int offset) {
+        for (int i = 0; i < length; i++) {
+            if (this.chars.getChar((offset + i) * 2) != s[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(char[] s, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = hash * 31 + s[i];
+        }
+        return hash;
+    }
+
+    public boolean contains(char[] word, int length) {
+        if (length == 0 || length > MAXIMUM_WORD_LENGTH) {
+            return false;
+        }
+        return (find(word, length, hash(word, length)) & WORD_BIT) != 0;
+    }
+
+    public boolean hasPrefix(char[] prefix, int length) {
+        if (length == 0) {
+            return true;
+        } else if (length > MAXIMUM_WORD_LENGTH) {
+            return false;
+        }
+        return find(prefix, length, hash(prefix, length)) != 0;
+    }
+
+    public int longestPrefix(char[] s, int length) {
+        // Each longer prefix's hash follows on from the last one's.
+        int hash = 0;
+        int i = 0;
+        while (i < length && i < MAXIMUM_WORD_LENGTH) {
+            hash = hash * 31 + s[i];
+            if (find(s, i + 1, hash) == 0) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int offset = 0;
+
+            public boolean hasNext() {
+                return this.offset < charCount;
+            }
+
+            public String next() {
+                if (! hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int length = chars.getChar(this.offset * 2);
+                char[] word = new char[length];
+                for (int i = 0; i < length; i++) {
+                    word[i] = chars.getChar((this.offset + 1 + i) * 2);
+                }
+                this.offset += 1 + length;
+                return new String(word);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
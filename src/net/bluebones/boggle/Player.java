@@ -190,6 +190,12 @@ public abstract class Player {
      *                  unset.
      */
     public void setRemoteServer(IServer server) {
+        // An RMI server needs no closing but a connection to one over NIO 
+        // does, or the host will think this player is still there.
+        if (this.remoteServer instanceof NioServerProxy 
+                && this.remoteServer != server) {
+            ((NioServerProxy) this.remoteServer).close();
+        }
         this.remoteServer = server;
     }
     
@@ -201,7 +207,7 @@ public abstract class Player {
      *                  <code>Player</code>.
      */
     public void setClient(Client client) {
-        if (this.client != null) {
+        if (this.client != null && this.registry != null) {
             try {
                 Boggle.debug("Unbinding " + this.client.getAddr());
                 this.registry.unbind(this.client.getAddr());
@@ -254,7 +260,7 @@ public abstract class Player {
     
     /** Takes the appropriate action after losing connection to a host. */
     public void hostConnectionLost() {
-        this.remoteServer = null;
+        setRemoteServer(null);
     }
     
     /**
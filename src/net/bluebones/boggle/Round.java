@@ -24,11 +24,14 @@
 package net.bluebones.boggle;
 
 import java.io.IOException;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.net.UnknownHostException;
 import java.rmi.RemoteException;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Represents a round of Boggle as seen by the server.
@@ -38,16 +41,26 @@ import java.util.Set;
  */
 public class Round implements Serializable {
 
-    private Set<String> uniqueWords = new HashSet<String>();
-    private Set<String> duplicateWords = new HashSet<String>();
-    private Set<String> misspeltWords = new HashSet<String>();
-    private Set<String> tooShortWords = new HashSet<String>();
-    private Set<String> notOnBoardWords = new HashSet<String>();
+    // What became of each distinct word submitted this round.
+    static final int NOT_ON_BOARD = 0;
+    static final int TOO_SHORT = 1;
+    static final int MISSPELT = 2;
+    static final int DUPLICATE = 3;
+    static final int UNIQUE = 4;
+    
+    // Distinct words validated by each task when marking in parallel.
+    private static final int WORDS_PER_TASK = 32;
+
+    private Map<String, Integer> verdicts = new HashMap<String, Integer>();
     private Turn[] turns;
     private char[][] letters;
+    private int maximumScore;
+    private int possibleWords;
+    private Scoring scoring;
     
     /**
-     * Initialises a round with the specified values.
+     * Initialises a round with the specified values, checking words against 
+     * the current dictionary and solving the board to find the maximum score.
      *
      * @param   turns                           Client turns that are part of 
      *                                          this round.
@@ -58,36 +71,120 @@ public class Round implements Serializable {
      */
     public Round(Turn[] turns, char[][] letters) 
             throws DictionaryUnavailableException {
+        this(turns, letters, Boggle.dictionary());
+    }
+    
+    /**
+     * Initialises a round with the specified values, checking words against 
+     * the specified dictionary and solving the board to find the maximum 
+     * score.
+     *
+     * @param   turns       Client turns that are part of this round.
+     * @param   letters     Letters face up on the board this round.
+     * @param   dictionary  <code>Dictionary</code> the round was played with.
+     */
+    public Round(Turn[] turns, char[][] letters, Dictionary dictionary) {
+        this(turns, letters, dictionary, 
+            new BoardSolver(dictionary).solve(letters));
+    }
+    
+    /**
+     * Initialises a round with the specified values and a solution of the 
+     * board worked out beforehand.  Any word in the solution is known to be 
+     * good without searching the board or the dictionary, so only the words 
+     * that are not need checking.
+     *
+     * @param   turns       Client turns that are part of this round.
+     * @param   letters     Letters face up on the board this round.
+     * @param   dictionary  <code>Dictionary</code> the round was played with.
+     * @param   solution    Every word of <code>dictionary</code> on 
+     *                      <code>letters</code>.
+     */
+    public Round(Turn[] turns, char[][] letters, Dictionary dictionary, 
+            BoardSolution solution) {
+        this(turns, letters, dictionary, Scoring.STANDARD, solution);
+    }
+    
+    /**
+     * Initialises a round with the specified values, scoring words with 
+     * <code>scoring</code> and using a solution of the board worked out 
+     * beforehand with the same scoring.
+     *
+     * @param   turns       Client turns that are part of this round.
+     * @param   letters     Letters face up on the board this round.
+     * @param   dictionary  <code>Dictionary</code> the round was played with.
+     * @param   scoring     <code>Scoring</code> the round was played with.
+     * @param   solution    Every word of <code>dictionary</code> on 
+     *                      <code>letters</code>.
+     * @see     LanguagePack
+     */
+    public Round(Turn[] turns, char[][] letters, Dictionary dictionary, 
+            Scoring scoring, BoardSolution solution) {
         this.turns = turns;
         this.letters = letters;
-        sortWords();
+        this.scoring = scoring;
+        sortWords(dictionary, solution);
         markTurns();
+        this.maximumScore = solution.maximumScore();
+        this.possibleWords = solution.size();
     }
     
-    private void sortWords() {
-        
-        BoardChecker boardChecker = new BoardChecker(this.letters);
+    /**
+     * Initialises a round that has already been marked, as read back by 
+     * <code>GameCodec</code>.
+     *
+     * @param   turns           Client turns, not yet marked.
+     * @param   letters         Letters face up on the board this round.
+     * @param   scoring         <code>Scoring</code> the words were scored by.
+     * @param   verdicts        <code>Map</code> of every word submitted to 
+     *                          what became of it.
+     * @param   maximumScore    <code>int</code> maximum score.
+     * @param   possibleWords   <code>int</code> number of words on the board.
+     */
+    Round(Turn[] turns, char[][] letters, Scoring scoring, 
+            Map<String, Integer> verdicts, int maximumScore, 
+            int possibleWords) {
+        this.turns = turns;
+        this.letters = letters;
+        this.scoring = scoring;
+        this.verdicts = verdicts;
+        markTurns();
+        this.maximumScore = maximumScore;
+        this.possibleWords = possibleWords;
+    }
+    
+    // Validates each distinct word once however many players submitted it, 
+    // spreading the words over the common pool, then works out which of the 
+    // valid words were found by more than one player.
+    private void sortWords(Dictionary dictionary, BoardSolution solution) {
         
+        Map<String, int[]> submissions = new HashMap<String, int[]>();
         for (int i = 0; i < this.turns.length; i++) {
             String[] words = this.turns[i].getWords();
             for (int j = 0; j < words.length; j++) {
-                if (! boardChecker.checkWord(words[j])) {
-                    this.notOnBoardWords.add(words[j]);
-                } else if ((words[j].length() < 3)) {
-                    this.tooShortWords.add(words[j]);
-                } else if (duplicateWords.contains(words[j])) {
-                    // do nothing
-                } else if (! uniqueWords.contains(words[j])) {
-                    if (Boggle.dictionary.isValid(words[j])) {
-                        this.uniqueWords.add(words[j]);
-                    } else {
-                        this.misspeltWords.add(words[j]);
-                    }
-                } else {
-                    this.uniqueWords.remove(words[j]);
-                    this.duplicateWords.add(words[j]);
+                int[] count = submissions.get(words[j]);
+                if (count == null) {
+                    count = new int[1];
+                    submissions.put(words[j], count);
                 }
+                count[0]++;
+            }
+        }
+        
+        String[] words = submissions.keySet().toArray(
+            new String[submissions.size()]);
+        int[] results = new int[words.length];
+        Validator validator = new Validator(new BoardChecker(this.letters), 
+            dictionary, solution, this.scoring.minimumWordLength());
+        ForkJoinPool.commonPool().invoke(new ValidateTask(validator, words, 
+            results, 0, words.length));
+        
+        for (int i = 0; i < words.length; i++) {
+            int verdict = results[i];
+            if (verdict == UNIQUE && submissions.get(words[i])[0] > 1) {
+                verdict = DUPLICATE;
             }
+            this.verdicts.put(words[i], Integer.valueOf(verdict));
         }
     }
     
@@ -95,27 +192,117 @@ public class Round implements Serializable {
         for (int i = 0; i < this.turns.length; i++) {
             String[] words = this.turns[i].getWords();
             for (int j = 0; j < words.length; j++) {
-                if (notOnBoardWords.contains(words[j])) {
-                    turns[i].addNotOnBoardWord(words[j]);
-                } else if (tooShortWords.contains(words[j])) {
-                    turns[i].addTooShortWord(words[j]);
-                } else if (misspeltWords.contains(words[j])) {
-                    turns[i].addMisspeltWord(words[j]);
-                } else if (duplicateWords.contains(words[j])) {
-                    turns[i].addDuplicateWord(words[j]);
-                } else if (uniqueWords.contains(words[j])) {
-                    turns[i].addUniqueWord(words[j]);
-                } else {
+                Integer verdict = this.verdicts.get(words[j]);
+                if (verdict == null) {
                     //TODO catch this somewhere?
                     throw new IllegalStateException("Word " + words[j] 
                         + " does not fit into any of the categories.  This is "
                         + "a can't happen error.");
                 }
+                switch (verdict.intValue()) {
+                    case NOT_ON_BOARD:
+                        turns[i].addNotOnBoardWord(words[j]);
+                        break;
+                    case TOO_SHORT:
+                        turns[i].addTooShortWord(words[j]);
+                        break;
+                    case MISSPELT:
+                        turns[i].addMisspeltWord(words[j]);
+                        break;
+                    case DUPLICATE:
+                        turns[i].addDuplicateWord(words[j]);
+                        break;
+                    default:
+                        turns[i].addUniqueWord(words[j]);
+                }
             }
+            turns[i].setScoring(this.scoring);
             turns[i].setMarked(true);
         }
     }
     
+    // Works out what became of a single word.  Everything it uses is safe to 
+    // share for reading so one serves all the tasks.
+    private static class Validator {
+
+        private BoardChecker checker;
+        private Dictionary dictionary;
+        private BoardSolution solution;
+        // Shortest word the round's scoring counts.
+        private int minimumWordLength;
+
+        private Validator(BoardChecker checker, Dictionary dictionary, 
+                BoardSolution solution, int minimumWordLength) {
+            this.checker = checker;
+            this.dictionary = dictionary;
+            this.solution = solution;
+            this.minimumWordLength = minimumWordLength;
+        }
+
+        // upper and dice must be at least as long as word.
+        private int validate(String word, char[] upper, char[] dice) {
+            int upperLength = WordNormalizer.upperCase(word, upper);
+            // Most words submitted are good ones so try the solution first.
+            if (word.length() >= this.minimumWordLength 
+                    && this.solution.contains(upper, upperLength)) {
+                return UNIQUE;
+            }
+            System.arraycopy(upper, 0, dice, 0, upperLength);
+            if (! this.checker.checkWord(dice, 
+                    WordNormalizer.foldQu(dice, upperLength))) {
+                return NOT_ON_BOARD;
+            } else if (word.length() < this.minimumWordLength) {
+                return TOO_SHORT;
+            } else if (! this.dictionary.isValid(upper, upperLength)) {
+                return MISSPELT;
+            } else {
+                return UNIQUE;
+            }
+        }
+    }
+
+    // Validates words[low..high) into results, halving the range until it is 
+    // small enough to do directly.
+    private static class ValidateTask extends RecursiveAction {
+
+        private Validator validator;
+        private String[] words;
+        private int[] results;
+        private int low;
+        private int high;
+
+        private ValidateTask(Validator validator, String[] words, 
+                int[] results, int low, int high) {
+            this.validator = validator;
+            this.words = words;
+            this.results = results;
+            this.low = low;
+            this.high = high;
+        }
+
+        protected void compute() {
+            if (this.high - this.low <= WORDS_PER_TASK) {
+                // One pair of buffers does for every word in the range.
+                int longest = 0;
+                for (int i = this.low; i < this.high; i++) {
+                    longest = Math.max(longest, this.words[i].length());
+                }
+                char[] upper = new char[longest];
+                char[] dice = new char[longest];
+                for (int i = this.low; i < this.high; i++) {
+                    this.results[i] 
+                        = this.validator.validate(this.words[i], upper, dice);
+                }
+                return;
+            }
+            int mid = (this.low + this.high) >>> 1;
+            invokeAll(new ValidateTask(this.validator, this.words, 
+                    this.results, this.low, mid),
+                new ValidateTask(this.validator, this.words, this.results, 
+                    mid, this.high));
+        }
+    }
+    
     /**
      * Gets all the client turns that make up this round.
      *
@@ -125,6 +312,53 @@ public class Round implements Serializable {
         return this.turns;
     }
     
+    /**
+     * Gets the letters face up on the board this round.
+     *
+     * @return  <code>char[][]</code>.
+     */
+    public char[][] getLetters() {
+        return this.letters;
+    }
+    
+    // What became of every word submitted this round.
+    Map<String, Integer> verdicts() {
+        return this.verdicts;
+    }
+    
+    /**
+     * Gets how words were scored this round.
+     *
+     * @return  <code>Scoring</code>.
+     */
+    public Scoring getScoring() {
+        return this.scoring;
+    }
+    
+    /**
+     * Gets the score of a player who found every word on the board that 
+     * nobody else found.
+     *
+     * @return  <code>int</code> theoretical maximum score for this round.
+     */
+    public int getMaximumScore() {
+        return this.maximumScore;
+    }
+    
+    /**
+     * Gets the number of dictionary words that could be made on the board.
+     *
+     * @return  <code>int</code> number of words.
+     */
+    public int getPossibleWords() {
+        return this.possibleWords;
+    }
+    
+    // Sent and stored in GameCodec's compact form.
+    private Object writeReplace() throws ObjectStreamException {
+        return GameCodec.replace(this);
+    }
+    
     //TODO inappropriate too many dict unvail throwing - it's not so important 
     // now that we check it at the beginning?
     /**
@@ -144,8 +378,8 @@ public class Round implements Serializable {
             java.io.FileNotFoundException, IOException {
         
         // TODO this test will no longer work.
-        Boggle.dictionary = new Dictionary(
-            new java.io.File("resources/dict.txt"));
+        Boggle.setDictionary(Dictionaries.readWords(
+            new java.io.File("resources/dict.txt")));
         
         String[][] words = new String[3][5];
         words[0] = new String[] { "one", "fjdlksa", "funky", "cow", "six" };
@@ -23,34 +23,71 @@
 
 package net.bluebones.boggle;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.rmi.server.UID;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Class representing an ongoing series of games.  Keeps track of cumulative 
  * scores of the participants.
+ * <br /><br />
+ * Every change moves the rubber on a version, and the host's copy remembers
+ * at which version each score last changed and each player left, so that 
+ * clients can be sent only what has changed since the version they have as 
+ * a <code>RubberDelta</code>.
  *
  * @author  Thomas David Baker, bakert@gmail.com>
  * @version 0.3 $Revision: 1.3 $
  */
 public class Rubber implements Serializable {
 
-    Map<NamedClient, Integer> scores = new HashMap<NamedClient, Integer>();
+    private Map<NamedClient, Integer> scores 
+        = new HashMap<NamedClient, Integer>();
+    private UID id = new UID();
+    private long version = 0;
+    // Versions at which each score last changed and each player left.
+    private transient Map<NamedClient, Long> changed;
+    private transient Map<NamedClient, Long> removed;
+    // Deltas cannot be made from versions before this, players who left 
+    // before it having been forgotten.
+    private transient long horizon = 0;
 
     /** Initializes an empty <code>Rubber</code>. */
-    public Rubber() {}
+    public Rubber() {
+        this.changed = new HashMap<NamedClient, Long>();
+        this.removed = new HashMap<NamedClient, Long>();
+    }
+    
+    /**
+     * Initializes a copy of a <code>Rubber</code>, as read back by 
+     * <code>GameCodec</code>.
+     *
+     * @param   id      <code>UID</code> of the rubber.
+     * @param   version <code>long</code> version of the rubber.
+     * @param   scores  <code>Map</code> of <code>NamedClient</code> to 
+     *                  <code>Integer</code> score.
+     */
+    Rubber(UID id, long version, Map<NamedClient, Integer> scores) {
+        this();
+        this.id = id;
+        this.version = version;
+        this.scores.putAll(scores);
+    }
     
     /**
      * Adds the specified client to this <code>Rubber</code>.
      *
      * @param   namedClient <code>NamedClient</code> to add.
      */
-    public void addClient(NamedClient namedClient) {
-        this.scores.put(namedClient, new Integer(0));
+    public synchronized void addClient(NamedClient namedClient) {
+        setScore(namedClient, 0);
     }
     
     /**
@@ -59,7 +96,7 @@ public class Rubber implements Serializable {
      * 
      * @param   round   <code>Round</code> to add.
      */
-    public void addScores(Round round) {
+    public synchronized void addScores(Round round) {
         Turn[] turns = round.getTurns();
         for (int i = 0; i < turns.length; i++) {
             addScore(turns[i]);
@@ -73,8 +110,14 @@ public class Rubber implements Serializable {
         Boggle.debug("adding score for " + turn.namedClient().name());
         Object o = this.scores.get(turn.namedClient());
         int score = (o == null ? 0 : ((Integer) o).intValue());
-        this.scores.put(turn.namedClient(), 
-            new Integer(turn.score() + score));
+        setScore(turn.namedClient(), turn.score() + score);
+    }
+    
+    private void setScore(NamedClient namedClient, int score) {
+        this.version++;
+        this.scores.put(namedClient, Integer.valueOf(score));
+        this.changed.put(namedClient, Long.valueOf(this.version));
+        this.removed.remove(namedClient);
     }
     
     /**
@@ -92,8 +135,12 @@ public class Rubber implements Serializable {
      *
      * @param   client  <code>NamedClient</code> to remove.
      */
-    public void remove(NamedClient client) {
-        this.scores.remove(client);
+    public synchronized void remove(NamedClient client) {
+        if (this.scores.remove(client) != null) {
+            this.version++;
+            this.changed.remove(client);
+            this.removed.put(client, Long.valueOf(this.version));
+        }
     }
     
     /**
@@ -102,10 +149,135 @@ public class Rubber implements Serializable {
      *
      * @param   clients <code>Collection</code> to remove.
      */
-    public void removeAll(Collection clients) {
+    public synchronized void removeAll(Collection clients) {
         for (Iterator iter = clients.iterator(); iter.hasNext(); ) {
             NamedClient client = (NamedClient) iter.next();
             remove(client);
         }
     }
+    
+    /**
+     * Gets the version of this <code>Rubber</code>, which goes up with every 
+     * change.
+     *
+     * @return  <code>long</code> version.
+     */
+    public synchronized long getVersion() {
+        return this.version;
+    }
+    
+    /**
+     * Gets what has changed since <code>version</code>.  If that is too long 
+     * ago to tell, or <code>version</code> is 0, the delta holds every score 
+     * and replaces whatever the client had.
+     *
+     * @param   version <code>long</code> version the client has.
+     * @return          <code>RubberDelta</code> from <code>version</code> to 
+     *                  the current version.
+     */
+    public synchronized RubberDelta deltaSince(long version) {
+        if (version <= 0 || version < this.horizon || version > this.version) {
+            return new RubberDelta(this.id, 0, this.version, 
+                new HashMap<NamedClient, Integer>(this.scores), 
+                Collections.<NamedClient>emptySet());
+        }
+        Map<NamedClient, Integer> scores = new HashMap<NamedClient, Integer>();
+        for (Iterator<Map.Entry<NamedClient, Long>> iter 
+                = this.changed.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry<NamedClient, Long> entry = iter.next();
+            if (entry.getValue().longValue() > version) {
+                scores.put(entry.getKey(), this.scores.get(entry.getKey()));
+            }
+        }
+        Set<NamedClient> gone = new HashSet<NamedClient>();
+        for (Iterator<Map.Entry<NamedClient, Long>> iter 
+                = this.removed.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry<NamedClient, Long> entry = iter.next();
+            if (entry.getValue().longValue() > version) {
+                gone.add(entry.getKey());
+            }
+        }
+        return new RubberDelta(this.id, version, this.version, scores, gone);
+    }
+    
+    /**
+     * Forgets the players who left at or before <code>version</code>, which 
+     * every client has got past.  Clients still behind it are sent every 
+     * score next time.
+     *
+     * @param   version <code>long</code> oldest version any client has.
+     */
+    public synchronized void forgetBefore(long version) {
+        if (version <= this.horizon) {
+            return;
+        }
+        this.horizon = Math.min(version, this.version);
+        for (Iterator<Long> iter = this.removed.values().iterator(); 
+                iter.hasNext(); ) {
+            if (iter.next().longValue() <= this.horizon) {
+                iter.remove();
+            }
+        }
+    }
+    
+    /**
+     * Brings this copy of a host's <code>Rubber</code> up to date with 
+     * <code>delta</code>.  A delta that replaces everything always applies; 
+     * any other only if it starts from a version of the same rubber no later 
+     * than this one's.  Scores in a delta are totals, not increments, so one 
+     * that overlaps changes already made does no harm.
+     *
+     * @param   delta   <code>RubberDelta</code> to apply.
+     * @return          <code>boolean</code> <code>false</code> if the delta 
+     *                  could not be applied because changes before it are 
+     *                  missing.
+     */
+    public synchronized boolean apply(RubberDelta delta) {
+        if (delta.isFull()) {
+            this.scores.clear();
+            this.id = delta.rubberId();
+        } else if (! delta.rubberId().equals(this.id) 
+                || delta.fromVersion() > this.version) {
+            return false;
+        } else if (delta.toVersion() <= this.version) {
+            return true;
+        }
+        this.scores.putAll(delta.scores());
+        for (Iterator<NamedClient> iter = delta.removed().iterator(); 
+                iter.hasNext(); ) {
+            this.scores.remove(iter.next());
+        }
+        this.version = delta.toVersion();
+        return true;
+    }
+    
+    /**
+     * Gets a copy of this <code>Rubber</code> that later changes to it do not 
+     * show up in.
+     *
+     * @return  <code>Rubber</code>.
+     */
+    public synchronized Rubber copy() {
+        Rubber copy = new Rubber();
+        copy.scores.putAll(this.scores);
+        copy.id = this.id;
+        copy.version = this.version;
+        return copy;
+    }
+    
+    // Identity shared by every copy of this rubber.
+    UID id() {
+        return this.id;
+    }
+    
+    // The scores themselves, for GameCodec to write.
+    Map<NamedClient, Integer> scores() {
+        return this.scores;
+    }
+    
+    // Sent and stored in GameCodec's compact form, which is written from a 
+    // copy so that changes meanwhile do no harm.
+    private Object writeReplace() throws ObjectStreamException {
+        return GameCodec.replace(this);
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * RubberDelta
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package net.bluebones.boggle;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.rmi.server.UID;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What has changed in a <code>Rubber</code> between two of its versions: the 
+ * total of every player who has joined or scored, and who has left.  A delta
+ * from version 0 holds every score and replaces all a client had.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     Rubber#deltaSince(long)
+ * @see     Rubber#apply(RubberDelta)
+ */
+public final class RubberDelta implements Serializable {
+
+    private UID rubberId;
+    private long fromVersion;
+    private long toVersion;
+    private Map<NamedClient, Integer> scores;
+    private Set<NamedClient> removed;
+
+    /**
+     * Initializes a new <code>RubberDelta</code>.
+     *
+     * @param   rubberId    <code>UID</code> of the rubber.
+     * @param   fromVersion <code>long</code> version it applies to, or 0.
+     * @param   toVersion   <code>long</code> version it brings a rubber to.
+     * @param   scores      <code>Map</code> of <code>NamedClient</code> to 
+     *                      <code>Integer</code> total for players who joined
+     *                      or scored.
+     * @param   removed     <code>Set</code> of <code>NamedClient</code>s who
+     *                      left.
+     */
+    RubberDelta(UID rubberId, long fromVersion, long toVersion, 
+            Map<NamedClient, Integer> scores, Set<NamedClient> removed) {
+        this.rubberId = rubberId;
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.scores = scores;
+        this.removed = removed;
+    }
+    
+    /**
+     * Gets the id of the rubber this is a change to.
+     *
+     * @return  <code>UID</code>.
+     */
+    public UID rubberId() {
+        return this.rubberId;
+    }
+    
+    /**
+     * Gets the version this applies to, or 0 if it replaces everything.
+     *
+     * @return  <code>long</code>.
+     */
+    public long fromVersion() {
+        return this.fromVersion;
+    }
+    
+    /**
+     * Gets the version this brings a rubber to.
+     *
+     * @return  <code>long</code>.
+     */
+    public long toVersion() {
+        return this.toVersion;
+    }
+    
+    /**
+     * Determines if this holds every score rather than just changes.
+     *
+     * @return  <code>boolean</code>.
+     */
+    public boolean isFull() {
+        return (this.fromVersion == 0);
+    }
+    
+    /**
+     * Determines if applying this would change nothing.
+     *
+     * @return  <code>boolean</code>.
+     */
+    public boolean isEmpty() {
+        return (! isFull() && this.fromVersion == this.toVersion);
+    }
+    
+    /**
+     * Gets the totals of the players who joined or scored.
+     *
+     * @return  <code>Map</code> of <code>NamedClient</code> to 
+     *          <code>Integer</code>.
+     */
+    public Map<NamedClient, Integer> scores() {
+        return Collections.unmodifiableMap(this.scores);
+    }
+    
+    /**
+     * Gets the players who left.
+     *
+     * @return  <code>Set</code> of <code>NamedClient</code>.
+     */
+    public Set<NamedClient> removed() {
+        return Collections.unmodifiableSet(this.removed);
+    }
+    
+    // Sent in GameCodec's compact form.
+    private Object writeReplace() throws ObjectStreamException {
+        return GameCodec.replace(this);
+    }
+    
+    public String toString() {
+        return "RubberDelta (" + this.fromVersion + " to " + this.toVersion 
+            + ", " + this.scores.size() + " scores, " + this.removed.size() 
+            + " removed)";
+    }
+}
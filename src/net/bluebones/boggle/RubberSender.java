@@ -24,10 +24,15 @@
 package net.bluebones.boggle;
 
 import java.rmi.RemoteException;
+import java.util.Map;
 
 /**
  * Thread to send game details to clients to avoid having to wait for RMI to 
  * happen in the main thread.
+ * <br /><br />
+ * Only what has changed since the version the client was last sent goes, 
+ * worked out when the send is made rather than when it is queued so that 
+ * it takes in every change made meanwhile.
  *
  * @author  Thomas David Baker <bakert@gmail.com>
  * @version 0.3 $Revision: 1.3 $
@@ -37,6 +42,7 @@ public class RubberSender implements Runnable {
     private Rubber rubber;
     private NamedClient namedClient;
     private Client host;
+    private Map<NamedClient, Long> versions;
 
     /**
      * Initializes a new ResultsSender to send rubber details with the specified 
@@ -45,19 +51,34 @@ public class RubberSender implements Runnable {
      * @param   rubber      Rubber details to send.
      * @param   namedClient NamedClient to send results to.
      * @param   host        Client that is hosting the game.
+     * @param   versions    <code>Map</code> of <code>NamedClient</code> to 
+     *                      the <code>Long</code> version of the rubber it was 
+     *                      last sent, updated once the send is made.
      */
-    public RubberSender(Rubber rubber, NamedClient namedClient, Client host) {
+    public RubberSender(Rubber rubber, NamedClient namedClient, Client host,
+            Map<NamedClient, Long> versions) {
         this.rubber = rubber;
         this.namedClient = namedClient;
         this.host   = host;
+        this.versions = versions;
     }
     
     /**  Sends the <code>Rubber</code> details to the clients. */
     public void run() {
         //TODO combine this class with ResultsSender as ClientSender???
+        Long version = this.versions.get(this.namedClient);
+        RubberDelta delta = this.rubber.deltaSince(
+            (version == null ? 0 : version.longValue()));
+        if (delta.isEmpty()) {
+            return;
+        }
         try {
-            this.namedClient.client().setRubber(this.rubber);
+            this.namedClient.client().updateRubber(delta);
+            this.versions.put(this.namedClient, 
+                Long.valueOf(delta.toVersion()));
         } catch (RemoteException e) {
+            // Send every score next time.
+            this.versions.remove(this.namedClient);
             String errMsg = "Could not pass game details to " 
                 + namedClient.name() + ".  If the problem persists " 
                 + namedClient.name() + " will be removed from the game.";
@@ -0,0 +1,157 @@
+/*
+ * Scoring
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.StringTokenizer;
+
+/**
+ * How many points a valid, unique word is worth, by its length.  Travels
+ * with each <code>Turn</code> so that clients score a round the way the
+ * server's language pack said to.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     LanguagePack
+ */
+public final class Scoring implements Serializable {
+
+    /** The standard Boggle scores: 1, 1, 2, 3, 5 then 11 from eight up. */
+    public static final Scoring STANDARD
+        = new Scoring(new int[] { 0, 0, 0, 1, 1, 2, 3, 5, 11 });
+
+    // Points by word length.  Words longer than the table score the last
+    // entry.
+    private int[] pointsByLength;
+
+    /**
+     * Initializes a new <code>Scoring</code>.
+     *
+     * @param   pointsByLength  <code>int[]</code> of points for a word of
+     *                          each length, the last entry also counting for
+     *                          any longer word.
+     * @throws  IllegalArgumentException    If the table is empty or any
+     *                                      entry is negative.
+     */
+    public Scoring(int[] pointsByLength) {
+        if (pointsByLength.length == 0) {
+            throw new IllegalArgumentException("No points given.");
+        }
+        for (int i = 0; i < pointsByLength.length; i++) {
+            if (pointsByLength[i] < 0) {
+                throw new IllegalArgumentException("Negative points for "
+                    + "words of length " + i + ".");
+            }
+        }
+        this.pointsByLength = pointsByLength.clone();
+    }
+
+    /**
+     * Parses a comma separated list of points by word length such as
+     * <code>"0,0,0,1,1,2,3,5,11"</code>.
+     *
+     * @param   s   <code>String</code> to parse.
+     * @return      <code>Scoring</code>.
+     * @throws  IllegalArgumentException    If <code>s</code> is not a list of
+     *                                      non-negative numbers.
+     */
+    public static Scoring parse(String s) {
+        StringTokenizer st = new StringTokenizer(s, ", \t");
+        int[] points = new int[st.countTokens()];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = Integer.parseInt(st.nextToken());
+        }
+        return new Scoring(points);
+    }
+
+    /**
+     * Gets the points for a word of each length, starting from 0.
+     *
+     * @return  <code>int[]</code>.
+     */
+    int[] pointsByLength() {
+        return this.pointsByLength.clone();
+    }
+
+    /**
+     * Gets the length of the shortest word that scores, shorter words being 
+     * too short to count.
+     *
+     * @return  <code>int</code> length, at least 1, or 
+     *          <code>Integer.MAX_VALUE</code> if no word scores.
+     */
+    public int minimumWordLength() {
+        // Past the end of the table every length scores the same.
+        int last = Math.max(1, this.pointsByLength.length - 1);
+        for (int i = 1; i <= last; i++) {
+            if (points(i) > 0) {
+                return i;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Gets the number of points a valid, unique word is worth.
+     *
+     * @param   word    <code>CharSequence</code> word to score.
+     * @return          <code>int</code> points.
+     */
+    public int points(CharSequence word) {
+        return points(word.length());
+    }
+
+    /**
+     * Gets the number of points a valid, unique word of the specified length
+     * is worth.
+     *
+     * @param   length  <code>int</code> length of the word.
+     * @return          <code>int</code> points.
+     */
+    public int points(int length) {
+        return this.pointsByLength[
+            Math.min(length, this.pointsByLength.length - 1)];
+    }
+
+    public boolean equals(Object o) {
+        return (o instanceof Scoring)
+            && Arrays.equals(this.pointsByLength, ((Scoring) o).pointsByLength);
+    }
+
+    public int hashCode() {
+        return Arrays.hashCode(this.pointsByLength);
+    }
+
+    public String toString() {
+        StringBuffer sb = new StringBuffer();
+        for (int i = 0; i < this.pointsByLength.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(this.pointsByLength[i]);
+        }
+        return sb.toString();
+    }
+}
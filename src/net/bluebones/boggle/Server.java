@@ -23,19 +23,29 @@
 
 package net.bluebones.boggle;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.UnknownHostException;
 import java.rmi.ConnectException;
 import java.rmi.Naming;
 import java.rmi.NotBoundException;
 import java.rmi.RemoteException;
+import java.rmi.server.ExportException;
 import java.rmi.server.UID;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.TimerTask;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Controls the network side of the application from the host/server side.
@@ -45,11 +55,41 @@ import java.util.Set;
  */
 public class Server extends UnicastRemoteObject implements IServer {
 
+    /** 
+     * Milliseconds changes to the rubber are gathered for before they are 
+     * sent, so that players joining together cost one send each to the rest.
+     */
+    public static final long RUBBER_DELAY_MILLIS = 100;
+    
+    /** Milliseconds between checks for clients whose leases have run out. */
+    public static final long LEASE_TICK_MILLIS = 1000;
+    
+    /** 
+     * Checks a client's lease lasts without a heartbeat.  Clients send one 
+     * every second or so.
+     */
+    public static final int LEASE_TICKS = 10;
+    
+    // For hosts started other than from Boggle.main.
+    static {
+        ClientSender.limitRmiCalls();
+    }
+
     private Client host;
     private Set<NamedClient> clients 
         = Collections.synchronizedSet(new HashSet<NamedClient>());
-    private Set<Turn> turns = new HashSet<Turn>();
+    private Set<Turn> turns 
+        = Collections.synchronizedSet(new HashSet<Turn>());
     private char[][] letters;
+    // The dictionary the game in progress was started with.
+    private Future<Dictionary> dictionary;
+    private Future<BoardSolution> solution;
+    // The language new games are played in, the language of the game in 
+    // progress and its scoring.  Each pack is held (acquired) separately so 
+    // that a pack is given back once no game needs it.
+    private LanguagePack nextLanguage;
+    private LanguagePack language = LanguagePacks.english();
+    private Scoring scoring = Scoring.STANDARD;
     private Rubber rubber;
     private Player player;
     private boolean sent = true;
@@ -58,6 +98,22 @@ public class Server extends UnicastRemoteObject implements IServer {
     private Set<NamedClient> waitingClients 
         = Collections.synchronizedSet(new HashSet<NamedClient>());
     private boolean gameInProgress = false;
+    // Accepts clients when hosting over NIO rather than RMI.
+    private NioHost nioHost;
+    private ClientSender sender = new ClientSender();
+    // Version of the rubber each client was last sent.
+    private Map<NamedClient, Long> rubberVersions 
+        = new ConcurrentHashMap<NamedClient, Long>();
+    private java.util.Timer timer = new java.util.Timer("Server timer", true);
+    // Not guarded by this Server's lock, so that adding and removing clients 
+    // never waits for a round to be marked.
+    private AtomicBoolean rubberPending = new AtomicBoolean();
+    // Every client, waiting or not, by IClient so that isClient need not 
+    // search.
+    private Map<IClient, NamedClient> byClient 
+        = new ConcurrentHashMap<IClient, NamedClient>();
+    private LeaseWheel<NamedClient> leases 
+        = new LeaseWheel<NamedClient>(LEASE_TICKS + 1);
     
     /**
      * Initialises a Server with the specified client as the host.
@@ -74,23 +130,64 @@ public class Server extends UnicastRemoteObject implements IServer {
         Boggle.debug("Initializing a Server.");
         this.player = player;
         this.addr = hostInfo.getAddr();
-        try {
-            //TODO are we fucking stuff up by not doing bind and looking
-            // for an alreadyboundexception?
-            Naming.rebind(hostInfo.getAddr(), this);
-        } catch (MalformedURLException e) {
-            throw new IllegalArgumentException("Address of host is not a "
-                + "well formed URL.  Exception was: " + e);
+        if (hostInfo.usesNio()) {
+            try {
+                this.nioHost = new NioHost(this, hostInfo.port());
+            } catch (IOException e) {
+                throw new ExportException("Cannot listen on port " 
+                    + hostInfo.port(), e);
+            }
+        } else {
+            try {
+                //TODO are we fucking stuff up by not doing bind and looking
+                // for an alreadyboundexception?
+                Naming.rebind(hostInfo.getAddr(), this);
+            } catch (MalformedURLException e) {
+                throw new IllegalArgumentException("Address of host is not a "
+                    + "well formed URL.  Exception was: " + e);
+            }
         }
         this.rubber = new Rubber();
         this.host = host;
         NamedClient namedClient = new NamedClient(host.getName(), host);
         clients.add(namedClient);
+        // The host has no lease, never being far away.
+        this.byClient.put(host, namedClient);
         this.rubber.addClient(namedClient);
         this.player.setRubber(rubber);
+        this.timer.scheduleAtFixedRate(new TimerTask() {
+            public void run() {
+                expireLeases();
+            }
+        }, LEASE_TICK_MILLIS, LEASE_TICK_MILLIS);
         //XXX this is an out and out bug - any client not attached to a game in 
         // progress will return true to isActive for this server now.
         this.gameId = new GameId(null, null);
+        try {
+            setLanguage(LanguagePacks.defaultLanguage());
+        } catch (IOException e) {
+            Boggle.debug("Hosting in English: " + e);
+            this.player.problem("Cannot play in " 
+                + LanguagePacks.defaultLanguage() + ", playing in English.");
+            this.nextLanguage = LanguagePacks.english();
+        }
+    }
+    
+    /**
+     * Sets the language that games started from now on are played in.  The 
+     * pack is loaded now, so that it is ready by the next game.
+     *
+     * @param   name        <code>String</code> name of a 
+     *                      <code>LanguagePack</code>.
+     * @throws  IOException If the pack cannot be loaded, in which case the 
+     *                      language is unchanged.
+     */
+    public synchronized void setLanguage(String name) throws IOException {
+        LanguagePack pack = LanguagePacks.acquire(name);
+        if (this.nextLanguage != null) {
+            LanguagePacks.release(this.nextLanguage);
+        }
+        this.nextLanguage = pack;
     }
     
     /**
@@ -123,14 +220,7 @@ public class Server extends UnicastRemoteObject implements IServer {
         try {
             IClient client = (IClient) Naming.lookup(clientAddr);
             //TODO could add UID here.
-            NamedClient namedClient = new NamedClient(clientName, client);
-            if (this.gameInProgress) {
-                waitingClients.add(namedClient);
-            } else {
-                clients.add(namedClient);
-            }
-            this.rubber.addClient(namedClient);
-            setRubber();
+            addClient(new NamedClient(clientName, client));
         } catch (NotBoundException e) {
             // Don't add the client because it is not registered.
             throw new ConnectException("Cannot add client with addr "
@@ -142,6 +232,44 @@ public class Server extends UnicastRemoteObject implements IServer {
         }
     }
     
+    /**
+     * Adds a client that has already been reached.  It joins the next game 
+     * to start.
+     *
+     * @param   namedClient <code>NamedClient</code> to add.
+     */
+    void addClient(NamedClient namedClient) {
+        if (this.gameInProgress) {
+            waitingClients.add(namedClient);
+        } else {
+            clients.add(namedClient);
+        }
+        this.byClient.put(namedClient.client(), namedClient);
+        this.leases.renew(namedClient, LEASE_TICKS);
+        this.rubber.addClient(namedClient);
+        setRubber();
+    }
+    
+    /**
+     * Stops accepting clients over NIO, if this Server was doing so, and 
+     * drops those connected that way.  Sends not yet made to any client are 
+     * dropped and the language packs are given back.
+     */
+    public void close() {
+        if (this.nioHost != null) {
+            this.nioHost.close();
+            this.nioHost = null;
+        }
+        this.sender.shutdown();
+        this.timer.cancel();
+        synchronized (this) {
+            LanguagePacks.release(this.nextLanguage);
+            LanguagePacks.release(this.language);
+            this.nextLanguage = LanguagePacks.english();
+            this.language = LanguagePacks.english();
+        }
+    }
+    
     /** Initialises a game and notifies all registered clients to start. */
     public void startGame() {
         Boggle.debug("Starting a game on all clients.");
@@ -149,14 +277,32 @@ public class Server extends UnicastRemoteObject implements IServer {
         clients.addAll(waitingClients);
         waitingClients.clear();
         
-        this.gameId = new GameId(this.addr, new UID());
+        // The game holds its own pack, and gives back the last game's.
+        LanguagePack language;
+        synchronized (this) {
+            try {
+                language = LanguagePacks.acquire(this.nextLanguage.name());
+            } catch (IOException e) {
+                // Already loaded and held by nextLanguage, so not expected.
+                Boggle.debug("Cannot reacquire " + this.nextLanguage.name() 
+                    + ": " + e);
+                language = LanguagePacks.english();
+            }
+            LanguagePacks.release(this.language);
+            this.language = language;
+        }
+        this.dictionary = language.currentDictionary();
+        this.scoring = language.scoring();
+        this.gameId = new GameId(this.addr, new UID(), 
+            dictionaryChecksum(this.dictionary), 
+            this.scoring.minimumWordLength());
         this.gameInProgress = true;
         this.sent = false;
                 
-        turns = new HashSet<Turn>();
+        turns = Collections.synchronizedSet(new HashSet<Turn>());
         
         // Generate the board.
-        Die[][] dice = Die.rollDice(Die.dice);
+        Die[][] dice = Die.rollDice(language.dice(Boggle.totalDice()));
         this.letters = new char[dice.length][dice[0].length];
         for (int x = 0; x < this.letters.length; x++) {
             for (int y = 0; y < this.letters[0].length; y++) {
@@ -165,6 +311,8 @@ public class Server extends UnicastRemoteObject implements IServer {
             }
         }
         Boggle.debugBoard(letters);
+        this.solution = solveInBackground(this.letters, this.dictionary, 
+            this.scoring);
         
         synchronized(clients) {
             for (Iterator iter = clients.iterator(); iter.hasNext(); ) {
@@ -176,6 +324,10 @@ public class Server extends UnicastRemoteObject implements IServer {
                     Boggle.debug(e.toString());
                     clients.remove(c);
                     this.rubber.remove(c);
+                    this.sender.remove(c);
+                    this.rubberVersions.remove(c);
+                    this.byClient.remove(c.client(), c);
+                    this.leases.remove(c);
                     setRubber();
                 }
             }
@@ -195,6 +347,20 @@ public class Server extends UnicastRemoteObject implements IServer {
         checkResultsSend();
     }
     
+    /**
+     * As <code>returnResults</code>, but if the turn is the last one wanted 
+     * the round is marked on this Server's timer thread, for callers that 
+     * must not wait while the dictionary and solution are got.
+     *
+     * @param   turn    Turn information.
+     */
+    void returnResultsLater(Turn turn) {
+        Boggle.debug("Getting results from a client (" 
+            + turn.namedClient().name() + ").");
+        this.turns.add(turn);
+        checkResultsSendLater();
+    }
+    
     //TODO counts of unique, sync, etc. words (points or just number, just
     // number I think) as well as total score
     
@@ -213,8 +379,18 @@ public class Server extends UnicastRemoteObject implements IServer {
         if (this.turns.size() == clients.size()) {
             Round round;
             try {
-                round = new Round((Turn[]) this.turns.toArray(
-                    new Turn[turns.size()]), this.letters);
+                Turn[] turns 
+                    = (Turn[]) this.turns.toArray(new Turn[this.turns.size()]);
+                // Mark with the words the game was started with even if the 
+                // dictionary has been reloaded since.
+                Dictionary dictionary = Boggle.dictionary(this.dictionary);
+                BoardSolution solution = getSolution();
+                if (solution == null) {
+                    solution = new BoardSolver(dictionary, this.scoring)
+                        .solve(this.letters);
+                }
+                round = new Round(turns, this.letters, dictionary, 
+                    this.scoring, solution);
                 rubber.addScores(round);
                 sendResults(round);
             } catch (DictionaryUnavailableException e) {
@@ -230,6 +406,75 @@ public class Server extends UnicastRemoteObject implements IServer {
         }
     }
     
+    /**
+     * Calls <code>checkResultsSend</code> on this Server's timer thread 
+     * rather than the caller's.
+     */
+    void checkResultsSendLater() {
+        try {
+            this.timer.schedule(new TimerTask() {
+                public void run() {
+                    checkResultsSend();
+                }
+            }, 0);
+        } catch (IllegalStateException e) {
+            // Closed.
+            Boggle.debug("Not checking results: " + e);
+        }
+    }
+    
+    // Gets the checksum that tells clients which words the game will be 
+    // marked with.
+    private static long dictionaryChecksum(Future<Dictionary> dictionary) {
+        try {
+            return Boggle.dictionary(dictionary).checksum();
+        } catch (DictionaryUnavailableException e) {
+            // Clients will leave checking words to the host.
+            Boggle.debug("No dictionary checksum for game: " + e);
+            return Dictionaries.NO_CHECKSUM;
+        }
+    }
+    
+    // Starts finding every word on the board while the round is being played 
+    // so that marking at the end need not search it.
+    private Future<BoardSolution> solveInBackground(final char[][] letters, 
+            final Future<Dictionary> dictionary, final Scoring scoring) {
+        FutureTask<BoardSolution> task = new FutureTask<BoardSolution>(
+            new Callable<BoardSolution>() {
+                public BoardSolution call() {
+                    try {
+                        return new BoardSolver(Boggle.dictionary(dictionary), 
+                            scoring).solve(letters);
+                    } catch (DictionaryUnavailableException e) {
+                        // Round will find out for itself when marking.
+                        Boggle.debug("Could not solve board: " + e);
+                        return null;
+                    }
+                }
+            });
+        Thread thread = new Thread(task, "Board solver");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        return task;
+    }
+    
+    // Gets the solution started in startGame, waiting for it if need be, or 
+    // null if there is none.
+    private BoardSolution getSolution() {
+        if (this.solution == null) {
+            return null;
+        }
+        try {
+            return this.solution.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Boggle.debug("Could not solve board: " + e.getCause());
+        }
+        return null;
+    }
+    
     /** 
      * Notifiy all registered clients of the results of a game. 
      *
@@ -240,22 +485,65 @@ public class Server extends UnicastRemoteObject implements IServer {
         synchronized(clients) {
             for (Iterator iter = clients.iterator(); iter.hasNext(); ) {
                 NamedClient client = (NamedClient) iter.next();
-                new Thread(new ResultsSender(this.rubber, round,
-                    client, host)).start();
+                this.sender.send(client, 
+                    new ResultsSender(this.rubber, round, client, host));
             }
         }
     }
     
-    /** Sends up to date rubber information to all clients. */
-    public synchronized void setRubber() {
+    /** 
+     * Sends up to date rubber information to all clients, along with any 
+     * other changes made in the next <code>RUBBER_DELAY_MILLIS</code>.
+     */
+    public void setRubber() {
+        if (! this.rubberPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.timer.schedule(new TimerTask() {
+                public void run() {
+                    sendRubber();
+                }
+            }, RUBBER_DELAY_MILLIS);
+        } catch (IllegalStateException e) {
+            // Closed.
+            Boggle.debug("Not sending rubber: " + e);
+        }
+    }
+    
+    private void sendRubber() {
+        this.rubberPending.set(false);
         Boggle.debug("Sending rubber to all clients.");
         synchronized(clients) {
+            // Players who left before every client's version need no longer
+            // be remembered.  A client that left while being sent to may have
+            // been put back, so clients are checked again here.
+            this.rubberVersions.keySet().retainAll(clients);
+            long oldest = Long.MAX_VALUE;
+            for (Iterator<Long> iter = this.rubberVersions.values().iterator(); 
+                    iter.hasNext(); ) {
+                oldest = Math.min(oldest, iter.next().longValue());
+            }
+            if (oldest != Long.MAX_VALUE) {
+                this.rubber.forgetBefore(oldest);
+            }
             for (Iterator iter = clients.iterator(); iter.hasNext(); ) {
                 NamedClient client = (NamedClient) iter.next();
-                new Thread(new RubberSender(this.rubber, client, 
-                    host)).start();
+                this.sender.send(client, new RubberSender(this.rubber, 
+                    client, host, this.rubberVersions));
             }
         }
+        Boggle.debug(this.sender.toString());
+    }
+    
+    /**
+     * Gets what passes results and rubber details to the clients, which 
+     * knows how many sends are waiting to go out.
+     *
+     * @return  <code>ClientSender</code>.
+     */
+    public ClientSender getClientSender() {
+        return this.sender;
     }
     
     /**
@@ -277,23 +565,39 @@ public class Server extends UnicastRemoteObject implements IServer {
      * @throws  RemoteException If anything goes wrong with the RMI.
      */
     public boolean isClient(IClient client) throws RemoteException {
-        synchronized(clients) {
-            for (Iterator iter = clients.iterator(); iter.hasNext(); ) {
-                NamedClient namedClient = (NamedClient) iter.next();
-                if (namedClient.client().equals(client)) {
-                    return true;
-                }
-            }
+        return (client != null && this.byClient.containsKey(client));
+    }
+    
+    /**
+     * To be called by a client every second or so.  Extends the client's 
+     * lease so that it is not dropped.
+     *
+     * @param   client          IClient that is still there.
+     * @return                  boolean of whether the specified client is a 
+     *                          client of this Server.
+     * @throws  RemoteException If anything goes wrong with the RMI.
+     */
+    public boolean heartbeat(IClient client) throws RemoteException {
+        NamedClient namedClient 
+            = (client == null ? null : this.byClient.get(client));
+        if (namedClient == null) {
+            return false;
         }
-        synchronized(waitingClients) {
-            for (Iterator iter = waitingClients.iterator(); iter.hasNext(); ) {
-                NamedClient namedClient = (NamedClient) iter.next();
-                if (namedClient.client().equals(client)) {
-                    return true;
-                }
-            }
+        if (namedClient.client() != this.host) {
+            this.leases.renew(namedClient, LEASE_TICKS);
+        }
+        return true;
+    }
+    
+    // Drops the clients that have not sent a heartbeat for LEASE_TICKS ticks.
+    private void expireLeases() {
+        Set<NamedClient> expired = this.leases.tick();
+        if (! expired.isEmpty()) {
+            Boggle.debug(expired.size() + " clients stopped sending "
+                + "heartbeats.");
+            removeClients(expired);
+            checkResultsSend();
         }
-        return false;
     }
     
     /**
@@ -307,7 +611,15 @@ public class Server extends UnicastRemoteObject implements IServer {
     public void removeClients(Collection clients) {
         Boggle.debug("Removing " + clients.size() + " clients");
         this.clients.removeAll(clients);
+        this.waitingClients.removeAll(clients);
         this.rubber.removeAll(clients);
+        for (Iterator iter = clients.iterator(); iter.hasNext(); ) {
+            NamedClient namedClient = (NamedClient) iter.next();
+            this.sender.remove(namedClient);
+            this.rubberVersions.remove(namedClient);
+            this.byClient.remove(namedClient.client(), namedClient);
+            this.leases.remove(namedClient);
+        }
         setRubber();
     }
     
@@ -0,0 +1,105 @@
+/*
+ * SolvedWord
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.io.Serializable;
+
+/**
+ * A word found on a board by <code>BoardSolver</code> together with one path 
+ * of dice that makes it and the points it is worth.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     BoardSolver
+ */
+public class SolvedWord implements Serializable, Comparable<SolvedWord> {
+
+    private String word;
+    private int[] path;
+    private int points;
+
+    /**
+     * Initializes a new <code>SolvedWord</code>.
+     *
+     * @param   word    <code>String</code> word in upper case, with a Qu die 
+     *                  spelt out as "QU".
+     * @param   path    <code>int[]</code> of the cells (see 
+     *                  <code>BoardGeometry</code>) making up the word, in 
+     *                  order.
+     * @param   points  <code>int</code> points the word is worth.
+     */
+    public SolvedWord(String word, int[] path, int points) {
+        this.word = word;
+        this.path = path;
+        this.points = points;
+    }
+
+    /**
+     * Gets the word.
+     *
+     * @return  <code>String</code> word in upper case.
+     */
+    public String word() {
+        return this.word;
+    }
+
+    /**
+     * Gets the cells making up the word, in order.  A Qu die appears once.
+     *
+     * @return  <code>int[]</code> of cell numbers.
+     * @see     BoardGeometry
+     */
+    public int[] path() {
+        return this.path;
+    }
+
+    /**
+     * Gets the points this word would score as a unique word in a 
+     * <code>Turn</code>.
+     *
+     * @return  <code>int</code> points.
+     */
+    public int points() {
+        return this.points;
+    }
+
+    /**
+     * Compares this <code>SolvedWord</code> with another, alphabetically.
+     *
+     * @param   o   <code>SolvedWord</code> to compare with.
+     * @return      <code>int</code> as <code>String.compareTo</code>.
+     */
+    public int compareTo(SolvedWord o) {
+        return this.word.compareTo(o.word);
+    }
+
+    /**
+     * Gets a <code>String</code> representation of this object.
+     *
+     * @return  <code>String</code> representation of this object.
+     */
+    public String toString() {
+        return this.word + " (" + this.points + ")";
+    }
+}
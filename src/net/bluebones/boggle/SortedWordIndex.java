@@ -0,0 +1,107 @@
+/*
+ * SortedWordIndex
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Word index kept as one sorted array of words.  Lookups binary search the 
+ * array, comparing the chars looked for against each word in place, so it is 
+ * compact and allocates nothing but every lookup costs O(log n) word 
+ * comparisons rather than one step per letter.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     Dictionaries
+ */
+class SortedWordIndex implements WordIndex {
+
+    private String[] words;
+
+    /**
+     * Initializes a new <code>SortedWordIndex</code>.
+     *
+     * @param   words   <code>String[]</code> of words in ascending order with 
+     *                  no duplicates.
+     */
+    SortedWordIndex(String[] words) {
+        this.words = words;
+    }
+
+    public boolean contains(char[] word, int length) {
+        int i = lowerBound(word, length);
+        return (i < this.words.length 
+            && WordNormalizer.compare(this.words[i], word, length) == 0);
+    }
+
+    public boolean hasPrefix(char[] prefix, int length) {
+        // The first word not before the prefix is the only one that need be 
+        // checked: if it does not start with the prefix nothing does.
+        int i = lowerBound(prefix, length);
+        if (i == this.words.length || this.words[i].length() < length) {
+            return false;
+        }
+        String word = this.words[i];
+        for (int j = 0; j < length; j++) {
+            if (word.charAt(j) != prefix[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int longestPrefix(char[] s, int length) {
+        int i = 0;
+        while (i < length && hasPrefix(s, i + 1)) {
+            i++;
+        }
+        return i;
+    }
+
+    public int size() {
+        return this.words.length;
+    }
+
+    public Iterator<String> iterator() {
+        return Collections.unmodifiableList(Arrays.asList(this.words))
+            .iterator();
+    }
+
+    // Index of the first word that does not sort before s.
+    private int lowerBound(char[] s, int length) {
+        int low = 0;
+        int high = this.words.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (WordNormalizer.compare(this.words[mid], s, length) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
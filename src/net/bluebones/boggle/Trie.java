@@ -0,0 +1,254 @@
+/*
+ * Trie
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Prefix tree of words.  Each node keeps its children in a small sorted array
+ * keyed on the next character so that both whole words and prefixes can be
+ * looked up in time proportional to their length.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     Dictionary
+ */
+class Trie implements WordIndex {
+
+    private Node root = new Node();
+    private int size = 0;
+
+    /**
+     * Adds the specified word to this <code>Trie</code>.
+     *
+     * @param   word    <code>String</code> word to add.
+     */
+    void add(String word) {
+        Node node = this.root;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.addChild(word.charAt(i));
+        }
+        if (! node.word) {
+            node.word = true;
+            this.size++;
+        }
+    }
+
+    /**
+     * Determines if the specified word has been added to this
+     * <code>Trie</code>.
+     *
+     * @param   word    <code>char[]</code> holding the word to look for.
+     * @param   length  <code>int</code> length of the word.
+     * @return          <code>boolean</code>.
+     */
+    public boolean contains(char[] word, int length) {
+        Node node = find(word, length);
+        return (node != null && node.word);
+    }
+
+    /**
+     * Determines if any word in this <code>Trie</code> starts with the
+     * specified prefix.  A word counts as a prefix of itself.
+     *
+     * @param   prefix  <code>char[]</code> holding the prefix to look for.
+     * @param   length  <code>int</code> length of the prefix.
+     * @return          <code>boolean</code>.
+     */
+    public boolean hasPrefix(char[] prefix, int length) {
+        return (find(prefix, length) != null);
+    }
+
+    /**
+     * Gets the length of the longest leading part of <code>s</code> that is a
+     * prefix of some word in this <code>Trie</code>.
+     *
+     * @param   s       <code>char[]</code> holding the chars to check.
+     * @param   length  <code>int</code> number of chars to check.
+     * @return          <code>int</code> length of the longest prefix.
+     */
+    public int longestPrefix(char[] s, int length) {
+        Node node = this.root;
+        int i = 0;
+        while (i < length) {
+            node = node.child(s[i]);
+            if (node == null) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Gets the number of words in this <code>Trie</code>.
+     *
+     * @return  <code>int</code> number of words.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the words in this <code>Trie</code> in ascending order.
+     *
+     * @return  <code>Iterator</code> over the words.
+     */
+    public Iterator<String> iterator() {
+        return new Words();
+    }
+
+    private Node find(char[] s, int length) {
+        Node node = this.root;
+        for (int i = 0; i < length && node != null; i++) {
+            node = node.child(s[i]);
+        }
+        return node;
+    }
+
+    // Walks the tree depth first, children in key order, which visits the 
+    // words in ascending order.
+    private class Words implements Iterator<String> {
+
+        private Node[] nodes = new Node[16];
+        // Index of the next child to visit of each node in nodes.
+        private int[] next = new int[16];
+        private char[] chars = new char[16];
+        private int depth = 0;
+        private String word;
+
+        private Words() {
+            this.nodes[this.depth++] = Trie.this.root;
+            this.word = find();
+        }
+
+        public boolean hasNext() {
+            return (this.word != null);
+        }
+
+        public String next() {
+            if (this.word == null) {
+                throw new NoSuchElementException();
+            }
+            String word = this.word;
+            this.word = find();
+            return word;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private String find() {
+            while (this.depth > 0) {
+                Node node = this.nodes[this.depth - 1];
+                int i = this.next[this.depth - 1]++;
+                if (i == node.keys.length) {
+                    this.depth--;
+                    continue;
+                }
+                if (this.depth == this.nodes.length) {
+                    grow();
+                }
+                this.chars[this.depth - 1] = node.keys[i];
+                Node child = node.children[i];
+                this.nodes[this.depth] = child;
+                this.next[this.depth] = 0;
+                this.depth++;
+                if (child.word) {
+                    return new String(this.chars, 0, this.depth - 1);
+                }
+            }
+            return null;
+        }
+
+        private void grow() {
+            int length = this.nodes.length * 2;
+            Node[] nodes = new Node[length];
+            int[] next = new int[length];
+            char[] chars = new char[length];
+            System.arraycopy(this.nodes, 0, nodes, 0, this.depth);
+            System.arraycopy(this.next, 0, next, 0, this.depth);
+            System.arraycopy(this.chars, 0, chars, 0, this.depth);
+            this.nodes = nodes;
+            this.next = next;
+            this.chars = chars;
+        }
+    }
+
+    private static class Node {
+
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private boolean word = false;
+
+        private Node child(char c) {
+            int i = indexOf(c);
+            return (i < 0 ? null : this.children[i]);
+        }
+
+        private Node addChild(char c) {
+            int i = indexOf(c);
+            if (i >= 0) {
+                return this.children[i];
+            }
+            // Keep the keys sorted so lookups can binary search them.
+            int insertAt = -(i + 1);
+            char[] newKeys = new char[this.keys.length + 1];
+            Node[] newChildren = new Node[this.children.length + 1];
+            System.arraycopy(this.keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(this.children, 0, newChildren, 0, insertAt);
+            System.arraycopy(this.keys, insertAt, newKeys, insertAt + 1,
+                this.keys.length - insertAt);
+            System.arraycopy(this.children, insertAt, newChildren,
+                insertAt + 1, this.children.length - insertAt);
+            Node node = new Node();
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = node;
+            this.keys = newKeys;
+            this.children = newChildren;
+            return node;
+        }
+
+        private int indexOf(char c) {
+            int low = 0;
+            int high = this.keys.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (this.keys[mid] < c) {
+                    low = mid + 1;
+                } else if (this.keys[mid] > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
@@ -23,9 +23,12 @@
 
 package net.bluebones.boggle;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -44,6 +47,7 @@ public class Turn implements Serializable {
     private Set<String> notOnBoardWords = new HashSet<String>();
     private Set<String> tooShortWords = new HashSet<String>();
     private NamedClient namedClient;
+    private Scoring scoring = Scoring.STANDARD;
     
     /**
      * Initialises a turn with the specified values.
@@ -76,24 +80,32 @@ public class Turn implements Serializable {
         int score = 0;
         //TODO must also check word is legal on the board.
         for (Iterator iter = uniqueWords.iterator(); iter.hasNext(); ) {
-            String word = (String) iter.next();
-            //TODO tie this in with Help, Scoring so they both come from the 
-            // same place.
-            if (word.length() == 3 || word.length() == 4) {
-                score += 1;
-            } else if (word.length() == 5) {
-                score += 2;
-            } else if (word.length() == 6) {
-                score += 3;
-            } else if (word.length() == 7) {
-                score += 5;
-            } else if (word.length() >= 8) {
-                score += 11;
-            }
+            score += this.scoring.points((String) iter.next());
         }
         return score;
     }
     
+    /**
+     * Gets the number of points a valid, unique word is worth under the 
+     * standard scoring.
+     *
+     * @param   word    <code>String</code> word to score.
+     * @return          <code>int</code> points.
+     */
+    public static int points(String word) {
+        return Scoring.STANDARD.points(word);
+    }
+    
+    /**
+     * Sets how the words of this Turn are scored.  Set by Round when marking.
+     *
+     * @param   scoring <code>Scoring</code> of the game this Turn was part 
+     *                  of.
+     */
+    public void setScoring(Scoring scoring) {
+        this.scoring = scoring;
+    }
+    
     /**
      * Whether this Turn has been marked yet (by Round).
      *
@@ -256,4 +268,28 @@ public class Turn implements Serializable {
     public NamedClient namedClient() {
         return this.namedClient;
     }
+    
+    // How this turn is scored.
+    Scoring getScoring() {
+        return this.scoring;
+    }
+    
+    // The sets this turn's words were sorted into when it was marked, 
+    // indexed by Round's verdicts, or none if it has not been marked.
+    List<Set<String>> getCategories() {
+        List<Set<String>> categories = new ArrayList<Set<String>>();
+        if (hasBeenMarked()) {
+            categories.add(Round.NOT_ON_BOARD, this.notOnBoardWords);
+            categories.add(Round.TOO_SHORT, this.tooShortWords);
+            categories.add(Round.MISSPELT, this.misspeltWords);
+            categories.add(Round.DUPLICATE, this.duplicateWords);
+            categories.add(Round.UNIQUE, this.uniqueWords);
+        }
+        return categories;
+    }
+    
+    // Sent and stored in GameCodec's compact form.
+    private Object writeReplace() throws ObjectStreamException {
+        return GameCodec.replace(this);
+    }
 }
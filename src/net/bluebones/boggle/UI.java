@@ -379,9 +379,21 @@ public class UI {
         this.wordArea.ready();
     }
     
-    /** Empties the word area and makes it possible to enter words. */
-    public void initWordArea() {
+    /**
+     * Empties the word area and makes it possible to enter words.
+     *
+     * @param   letters             Letters on the board to check words 
+     *                              against.
+     * @param   dictionary          <code>Dictionary</code> to check words 
+     *                              against or <code>null</code> to leave that 
+     *                              to the host.
+     * @param   minimumWordLength   <code>int</code> length of the shortest 
+     *                              word the game counts.
+     */
+    public void initWordArea(char[][] letters, Dictionary dictionary, 
+            int minimumWordLength) {
         this.wordArea.clear();
+        this.wordArea.setBoard(letters, dictionary, minimumWordLength);
         this.wordArea.setEditable(true);
     }
     
@@ -23,9 +23,11 @@
 
 package net.bluebones.boggle;
 
+import java.awt.Color;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
+import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.HashSet;
@@ -35,9 +37,15 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 /**
- * Panel that allows entry of new words and displays words already entered.
+ * Panel that allows entry of new words and displays words already entered.  
+ * Words are checked against the board, and the dictionary if this machine has 
+ * the same one as the host, as they are typed.  Entries that are not on the 
+ * board are shown in red and entries that are not (yet) words in grey, and 
+ * neither can be added to the list.
  *
  * @author  Thomas David Baker <bakert@gmail.com>
  * @version 0.3 $Revision: 1.4 $
@@ -46,9 +54,17 @@ public class WordArea extends JPanel {
     
     //TODO some kind of display when you enter a word you already have
     
+    private static final Color NOT_ON_BOARD = Color.RED;
+    private static final Color NOT_A_WORD = Color.GRAY;
+    
     private JTextArea list;
     private Set<String> words = new HashSet<String>();
     private JTextField wordEntry;
+    private Color wordColor;
+    // What entries are checked against, null when there is nothing to check.
+    private BoardChecker checker;
+    private Dictionary dictionary;
+    private int minimumWordLength = BoardSolver.MINIMUM_WORD_LENGTH;
 
     /** Initialises a new WordArea. */
     public WordArea() {
@@ -79,6 +95,18 @@ public class WordArea extends JPanel {
                 addWord(wordEntry.getText().trim());
             }
         });
+        wordEntry.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) {
+                showEntryCheck();
+            }
+            public void removeUpdate(DocumentEvent e) {
+                showEntryCheck();
+            }
+            public void changedUpdate(DocumentEvent e) {
+                showEntryCheck();
+            }
+        });
+        this.wordColor = wordEntry.getForeground();
             
         this.add(wordEntry);
         
@@ -132,6 +160,12 @@ public class WordArea extends JPanel {
     
     private void addWord(String word) {
         if ((! words.contains(word)) && (! word.equals(""))) {
+            if (check(word) != null) {
+                // Leave it there to be corrected or typed over.
+                Toolkit.getDefaultToolkit().beep();
+                this.wordEntry.selectAll();
+                return;
+            }
             this.words.add(word);
             this.list.setText(list.getText() + word 
                 + System.getProperty("line.separator"));
@@ -139,6 +173,46 @@ public class WordArea extends JPanel {
         this.wordEntry.setText("");
     }
     
+    private void showEntryCheck() {
+        String word = this.wordEntry.getText().trim();
+        Color color = (word.equals("") ? null : check(word));
+        this.wordEntry.setForeground(color == null ? this.wordColor : color);
+    }
+    
+    // Gets the colour to show word in if it cannot be added, or null if it 
+    // can.
+    private Color check(String word) {
+        if (this.checker == null) {
+            return null;
+        } else if (! this.checker.checkWord(word)) {
+            return NOT_ON_BOARD;
+        } else if (word.length() < this.minimumWordLength 
+                || (this.dictionary != null 
+                    && ! this.dictionary.isValid(word))) {
+            return NOT_A_WORD;
+        }
+        return null;
+    }
+    
+    /**
+     * Sets what words entered are checked against.
+     *
+     * @param   letters             Letters on the board or <code>null</code> 
+     *                              to accept any word.
+     * @param   dictionary          <code>Dictionary</code> the host will mark 
+     *                              words with or <code>null</code> to accept 
+     *                              any word on the board.
+     * @param   minimumWordLength   <code>int</code> length of the shortest 
+     *                              word the host will count.
+     */
+    public void setBoard(char[][] letters, Dictionary dictionary, 
+            int minimumWordLength) {
+        this.checker = (letters == null ? null : new BoardChecker(letters));
+        this.dictionary = dictionary;
+        this.minimumWordLength = minimumWordLength;
+        showEntryCheck();
+    }
+    
     /** Empties the word entry box and word list. */
     public void clear() {
         this.wordEntry.setText("");
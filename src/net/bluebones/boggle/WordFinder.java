@@ -33,10 +33,11 @@ package net.bluebones.boggle;
  */
 public class WordFinder implements Runnable {
 
-    private boolean finding = true;
+    private volatile boolean finding = true;
     private AIPlayer player;
     private char[][] letters;
     private int longestWord;
+    private BoardSolver solver;
 
     /**
      * Initializes a new <code>WordFinder</code>.
@@ -57,6 +58,7 @@ public class WordFinder implements Runnable {
         this.player = player;
         this.letters = letters;
         this.longestWord = longestWord;
+        this.solver = new BoardSolver(Boggle.dictionary());
         //TODO should use their own, more limited dictionaries?
         // that could have tremendous memory implications for running
         // many AIs on one machine.  better to limit them by arbitrarily
@@ -77,47 +79,23 @@ public class WordFinder implements Runnable {
      */
     public void run() {
         Boggle.debug("Started at " + System.currentTimeMillis());
-        //Boggle.debug("Running WordFinder");
-        boolean[][] used 
-            = new boolean[this.letters.length][this.letters[0].length];
-        for (int x = 0; x < this.letters.length; x++) {
-            for (int y = 0; y < this.letters[0].length; y++) {
-                //Boggle.debug("Calling findWord from run");
-                findWord(x, y, "", Boggle.copy(used)); 
-            }
-        }
-        Boggle.debug("Finished at " + System.currentTimeMillis());
-    }
-    
-    private void findWord(int posX, int posY, String oldWord, 
-            boolean[][] used) {
-        final int MINIMUM_WORD_LENGTH = 3;
-        used[posX][posY] = true;
-        String word = oldWord + this.letters[posX][posY];
-        if (this.letters[posX][posY] == 'Q') {
-            word += "U";
-        }
-        if (this.finding && word.length() >= MINIMUM_WORD_LENGTH 
-                && Boggle.dictionary.isValid(word)) {
-            this.player.addWord(word);
-        }
-        //TODO AI could have a dictionary of words it 
-        // "knows" and check if it /could/ be working towards any of them and 
-        // short circuit if not.
-        
-        for (int x = -1; x <= 1; x++) {
-            for (int y = -1; y <= 1; y++) {
-                int newX = x + posX;
-                int newY = y + posY;
-                boolean offBoard = ((newX < 0) || (newX >= this.letters.length) 
-                    || (newY < 0) || (newY >= this.letters[0].length));
-                if ((finding) && (! offBoard) && (! used[newX][newY]) 
-                        && word.length() < this.longestWord) {
-                    //Boggle.debug("Calling findWord from findWord.");
-                    findWord(newX, newY, word, Boggle.copy(used));
+        this.solver.search(this.letters, this.longestWord, 
+                new BoardSolver.CancellableListener() {
+            public boolean found(char[] word, int length, int[] path, 
+                    int pathLength) {
+                if (finding) {
+                    player.addWord(new String(word, 0, length));
                 }
+                return finding;
+            }
+            
+            // Checked at every die so that the search stops promptly even 
+            // when it has gone a while without finding a word.
+            public boolean isCancelled() {
+                return ! finding;
             }
-        }
+        });
+        Boggle.debug("Finished at " + System.currentTimeMillis());
         
         //TODO AI players do unnecessary work because they use what is 
         // effectively the "HumanClient".  Do they need their own streamlined 
@@ -0,0 +1,74 @@
+/*
+ * WordIndex
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+/**
+ * Lookup structure behind a <code>Dictionary</code>.  Words are passed as the 
+ * first <code>length</code> chars of a <code>char[]</code> so that callers can 
+ * reuse one buffer for every lookup, and are expected in the same (upper) 
+ * case as they were stored in.  Iterating an index gives its words in 
+ * ascending order.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     Dictionary
+ */
+interface WordIndex extends Iterable<String> {
+
+    /**
+     * Determines if the specified word is in this index.
+     *
+     * @param   word    <code>char[]</code> holding the word to look for.
+     * @param   length  <code>int</code> length of the word.
+     * @return          <code>boolean</code>.
+     */
+    boolean contains(char[] word, int length);
+
+    /**
+     * Determines if any word in this index starts with the specified prefix.  
+     * A word counts as a prefix of itself.
+     *
+     * @param   prefix  <code>char[]</code> holding the prefix to look for.
+     * @param   length  <code>int</code> length of the prefix.
+     * @return          <code>boolean</code>.
+     */
+    boolean hasPrefix(char[] prefix, int length);
+
+    /**
+     * Gets the length of the longest leading part of <code>s</code> that is a
+     * prefix of some word in this index.
+     *
+     * @param   s       <code>char[]</code> holding the chars to check.
+     * @param   length  <code>int</code> number of chars to check.
+     * @return          <code>int</code> length of the longest prefix.
+     */
+    int longestPrefix(char[] s, int length);
+
+    /**
+     * Gets the number of words in this index.
+     *
+     * @return  <code>int</code> number of words.
+     */
+    int size();
+}
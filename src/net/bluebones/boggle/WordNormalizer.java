@@ -0,0 +1,136 @@
+/*
+ * WordNormalizer
+ *
+ * Thomas David Baker <bakert@gmail.com>, 2005-05-08
+ *
+ * bluebones.net Boggle - network-aware multiplayer word game.
+ * Copyright (C) 2004-5 Thomas David Baker <bakert@gmail.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package net.bluebones.boggle;
+
+/**
+ * Puts words into the forms the rest of the game compares them in, writing 
+ * into <code>char[]</code>s the caller supplies so that nothing need be 
+ * allocated per word.  Words are compared in upper case, which is how the 
+ * dictionary holds them.  Tracing a word on the board also needs it in 
+ * "dice" form where each QU is folded into the single Q that stands for the 
+ * Qu die.
+ *
+ * @author  Thomas David Baker <bakert@gmail.com>
+ * @version 0.3 $Revision: 1.1 $
+ * @see     Dictionary
+ * @see     BoardChecker
+ */
+public final class WordNormalizer {
+
+    private static final ThreadLocal<char[]> SCRATCH 
+            = new ThreadLocal<char[]>() {
+        protected char[] initialValue() {
+            return new char[32];
+        }
+    };
+
+    private WordNormalizer() {}
+
+    /**
+     * Writes the specified word in upper case into <code>into</code>.
+     *
+     * @param   word    <code>CharSequence</code> word in any case.
+     * @param   into    <code>char[]</code> at least as long as 
+     *                  <code>word</code>.
+     * @return          <code>int</code> length of the upper case word.
+     */
+    public static int upperCase(CharSequence word, char[] into) {
+        int length = word.length();
+        for (int i = 0; i < length; i++) {
+            into[i] = Character.toUpperCase(word.charAt(i));
+        }
+        return length;
+    }
+
+    /**
+     * Writes the specified word in dice form, in upper case with each QU 
+     * folded into a single Q, into <code>into</code>.
+     *
+     * @param   word    <code>CharSequence</code> word in any case.
+     * @param   into    <code>char[]</code> at least as long as 
+     *                  <code>word</code>.
+     * @return          <code>int</code> length of the word in dice form.
+     */
+    public static int toDice(CharSequence word, char[] into) {
+        return foldQu(into, upperCase(word, into));
+    }
+
+    /**
+     * Folds each QU in an upper case word into a single Q, in place.
+     *
+     * @param   word    <code>char[]</code> holding the word.
+     * @param   length  <code>int</code> length of the word.
+     * @return          <code>int</code> length of the word in dice form.
+     */
+    public static int foldQu(char[] word, int length) {
+        int folded = 0;
+        for (int i = 0; i < length; i++) {
+            word[folded++] = word[i];
+            if (word[i] == 'Q' && i + 1 < length && word[i + 1] == 'U') {
+                i++;
+            }
+        }
+        return folded;
+    }
+
+    /**
+     * Gets a buffer belonging to the calling thread for normalizing a word 
+     * into.  The same buffer is handed out again on the next call from the 
+     * thread so its contents must not be relied on after that.
+     *
+     * @param   length  <code>int</code> length needed.
+     * @return          <code>char[]</code> of at least <code>length</code> 
+     *                  chars.
+     */
+    static char[] scratch(int length) {
+        char[] scratch = SCRATCH.get();
+        if (scratch.length < length) {
+            scratch = new char[Math.max(length, scratch.length * 2)];
+            SCRATCH.set(scratch);
+        }
+        return scratch;
+    }
+
+    /**
+     * Compares a word with the first <code>length</code> chars of 
+     * <code>s</code> as <code>String.compareTo</code> would.
+     *
+     * @param   word    <code>CharSequence</code> to compare.
+     * @param   s       <code>char[]</code> to compare with.
+     * @param   length  <code>int</code> number of chars of <code>s</code>.
+     * @return          <code>int</code> negative, zero or positive as 
+     *                  <code>word</code> sorts before, the same as or after 
+     *                  <code>s</code>.
+     */
+    static int compare(CharSequence word, char[] s, int length) {
+        int n = Math.min(word.length(), length);
+        for (int i = 0; i < n; i++) {
+            int diff = word.charAt(i) - s[i];
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return word.length() - length;
+    }
+}